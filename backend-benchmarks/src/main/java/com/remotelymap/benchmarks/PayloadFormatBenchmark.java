@@ -0,0 +1,111 @@
+package com.remotelymap.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.remotelymap.api.dto.PaginatedResponse;
+import com.remotelymap.api.dto.PlaceResponse;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.mapper.PlaceMapper;
+import com.remotelymap.api.mapper.PlaceMapperImpl;
+import com.remotelymap.api.model.Place;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and CPU cost of each wire format {@code GET /api/places} can answer in, with and without the gzip
+ * Tomcat applies above {@code server.compression.min-response-size}. Payload sizes are printed once per
+ * trial; they don't vary between runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int pageSize;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private final PlaceMapper placeMapper = new PlaceMapperImpl();
+    private ObjectMapper objectMapper;
+    private PaginatedResponse<PlaceResponse> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        OffsetDateTime timestamp = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+        List<PlaceResponse> responses = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Place place = new Place();
+            place.setId(UUID.randomUUID());
+            place.setName("Place " + i);
+            place.setDescription("A place worth a visit, number " + i);
+            place.setAddress(i + " Example Street");
+            place.setRating(4.5);
+            place.setLatitude(40.7829 + i * 0.0001);
+            place.setLongitude(-73.9654 - i * 0.0001);
+            place.setPhotos(List.of());
+            place.setCreatedAt(timestamp);
+            place.setUpdatedAt(timestamp);
+            responses.add(placeMapper.toResponse(place));
+        }
+        page = new PaginatedResponse<>(responses, 0, pageSize, 10_000L, TotalKind.CACHED, 10_000 / pageSize,
+            true, false, "cursor");
+        encoded = objectMapper.writeValueAsBytes(page);
+        System.out.printf("%n%s, %d places: %d bytes, %d gzipped%n", format, pageSize, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return objectMapper.readTree(encoded);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
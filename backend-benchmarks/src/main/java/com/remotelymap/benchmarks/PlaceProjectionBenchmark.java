@@ -0,0 +1,140 @@
+package com.remotelymap.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.remotelymap.api.config.PlaceFieldsConfig;
+import com.remotelymap.api.dto.PaginatedResponse;
+import com.remotelymap.api.dto.PlaceResponse;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.mapper.PlaceMapper;
+import com.remotelymap.api.mapper.PlaceMapperImpl;
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.repository.PlaceProjection;
+import com.remotelymap.api.repository.PlaceRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code fields=name,rating} saves a card list over whole places: mapping a row, writing a page of
+ * 20 places the way the controller advice does, and the bytes per row both on the wire from Postgres
+ * and in the JSON. The descriptions are 500 characters, half the limit. Sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlaceProjectionBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"all", "card"})
+    public String projection;
+
+    private final PlaceMapper placeMapper = new PlaceMapperImpl();
+    private PlaceRowMapper rowMapper;
+    private ObjectWriter writer;
+    private ResultSet row;
+    private PaginatedResponse<PlaceResponse> page;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        PlaceProjection selected = switch (projection) {
+            case "all" -> PlaceProjection.ALL;
+            case "card" -> PlaceProjection.parse("name,rating");
+            default -> throw new IllegalArgumentException("Unknown projection " + projection);
+        };
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new PlaceFieldsConfig().placeFieldsFilter().customize(builder);
+        writer = selected.isAll() ? builder.build().writer() : builder.build().writer(new SimpleFilterProvider()
+                .addFilter(PlaceFieldsConfig.PLACE_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selected.fieldNames())));
+        rowMapper = new PlaceRowMapper(selected);
+
+        OffsetDateTime timestamp = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", UUID.randomUUID());
+        values.put("name", "Central Park");
+        values.put("description", "A large urban park in Manhattan. ".repeat(16).substring(0, 500));
+        values.put("address", "123 Park Avenue");
+        values.put("rating", new BigDecimal("4.5"));
+        values.put("latitude", 40.7829);
+        values.put("longitude", -73.9654);
+        values.put("created_at", timestamp);
+        values.put("updated_at", timestamp);
+        row = StubResultSet.of(values);
+
+        List<PlaceResponse> responses = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Place place = rowMapper.mapRow(row, i);
+            if (selected.includes(PlaceProjection.Field.PHOTOS)) {
+                place.setPhotos(List.of());
+            }
+            responses.add(placeMapper.toResponse(place));
+        }
+        page = new PaginatedResponse<>(responses, 0, PAGE_SIZE, 10_000L, TotalKind.CACHED, 10_000 / PAGE_SIZE,
+            true, false, "cursor");
+
+        byte[] json = writer.writeValueAsBytes(page);
+        byte[] empty = writer.writeValueAsBytes(new PaginatedResponse<>(List.of(), 0, PAGE_SIZE, 10_000L,
+            TotalKind.CACHED, 10_000 / PAGE_SIZE, true, false, "cursor"));
+        System.out.printf("%n%s: %d bytes per row from Postgres, %d bytes per place in JSON%n", projection,
+            wireBytes(selected, values), (json.length - empty.length) / PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Place mapRow() throws SQLException {
+        return rowMapper.mapRow(row, 0);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    /**
+     * Size of a DataRow in Postgres's binary format: a length word per column, then the value.
+     */
+    private static int wireBytes(PlaceProjection projection, Map<String, Object> values) {
+        int bytes = 0;
+        for (PlaceProjection.Field field : PlaceProjection.Field.values()) {
+            boolean selected = projection.includes(field) || field == PlaceProjection.Field.CREATED_AT
+                    || field == PlaceProjection.Field.UPDATED_AT;
+            if (!selected || field == PlaceProjection.Field.PHOTOS) {
+                continue;
+            }
+            Object value = values.get(switch (field) {
+                case CREATED_AT -> "created_at";
+                case UPDATED_AT -> "updated_at";
+                default -> field.fieldName();
+            });
+            bytes += Integer.BYTES + (value instanceof String text ? text.getBytes(StandardCharsets.UTF_8).length
+                    : value instanceof UUID ? 16 : 8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,106 @@
+package com.remotelymap.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.remotelymap.api.controller.CachedBody;
+import com.remotelymap.api.controller.PlaceResponseCache;
+import com.remotelymap.api.dto.PaginatedResponse;
+import com.remotelymap.api.dto.PlaceResponse;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.mapper.PlaceMapper;
+import com.remotelymap.api.mapper.PlaceMapperImpl;
+import com.remotelymap.api.model.Place;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing the body of {@code GET /api/places} from a page of places: MapStruct mapping
+ * to {@link PlaceResponse} and Jackson serialization, configured the way Spring Boot configures it,
+ * against what a hit in {@code PlaceResponseCache} does instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlaceResponseBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private final PlaceMapper placeMapper = new PlaceMapperImpl();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<Place> places;
+    private PaginatedResponse<PlaceResponse> page;
+    private final Cache<Object, CachedBody> bodies = Caffeine.newBuilder().maximumSize(1_000).build();
+    private final Object key = PlaceResponseCache.pageKey(0, 10);
+    private final String eTag = "W/\"page\"";
+
+    @Setup
+    public void setUp() throws Exception {
+        OffsetDateTime timestamp = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+        places = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Place place = new Place();
+            place.setId(UUID.randomUUID());
+            place.setName("Place " + i);
+            place.setDescription("A place worth a visit, number " + i);
+            place.setAddress(i + " Example Street");
+            place.setRating(4.5);
+            place.setLatitude(40.7829);
+            place.setLongitude(-73.9654);
+            place.setPhotos(List.of());
+            place.setCreatedAt(timestamp);
+            place.setUpdatedAt(timestamp);
+            places.add(place);
+        }
+        page = toPage(places);
+        bodies.put(key, new CachedBody(eTag, objectMapper.writeValueAsBytes(page), null));
+    }
+
+    @Benchmark
+    public PaginatedResponse<PlaceResponse> map() {
+        return toPage(places);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(toPage(places));
+    }
+
+    @Benchmark
+    public byte[] cachedBody() {
+        CachedBody cached = bodies.getIfPresent(key);
+        return cached != null && cached.eTag().equals(eTag) ? cached.json() : null;
+    }
+
+    private PaginatedResponse<PlaceResponse> toPage(List<Place> content) {
+        List<PlaceResponse> responses = content.stream().map(placeMapper::toResponse).toList();
+        return new PaginatedResponse<>(responses, 0, pageSize, 10_000L, TotalKind.CACHED, 10_000 / pageSize,
+            true, false, "cursor");
+    }
+}
@@ -0,0 +1,82 @@
+package com.remotelymap.benchmarks;
+
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.repository.PlaceRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one places row into a {@link Place}, for the current mapper and for the way it
+ * was mapped before (UUID parsed from a string, timestamps converted through
+ * {@code OffsetDateTime.now()}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlaceRowMapperBenchmark {
+
+    private static final RowMapper<Place> LEGACY = (rs, rowNum) -> {
+        Place place = new Place();
+        place.setId(UUID.fromString(rs.getString("id")));
+        place.setName(rs.getString("name"));
+        place.setDescription(rs.getString("description"));
+        place.setAddress(rs.getString("address"));
+        place.setRating(rs.getDouble("rating"));
+        place.setLatitude(rs.getObject("latitude", Double.class));
+        place.setLongitude(rs.getObject("longitude", Double.class));
+        place.setCreatedAt(rs.getTimestamp("created_at").toInstant().atOffset(OffsetDateTime.now().getOffset()));
+        place.setUpdatedAt(rs.getTimestamp("updated_at").toInstant().atOffset(OffsetDateTime.now().getOffset()));
+        return place;
+    };
+
+    private final RowMapper<Place> current = new PlaceRowMapper();
+    private ResultSet row;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime timestamp = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", UUID.randomUUID());
+        values.put("name", "Central Park");
+        values.put("description", "A large urban park in Manhattan");
+        values.put("address", "123 Park Avenue");
+        values.put("rating", new BigDecimal("4.5"));
+        values.put("latitude", 40.7829);
+        values.put("longitude", -73.9654);
+        values.put("created_at", timestamp);
+        values.put("updated_at", timestamp);
+        row = StubResultSet.of(values);
+    }
+
+    @Benchmark
+    public Place current() throws SQLException {
+        return current.mapRow(row, 0);
+    }
+
+    @Benchmark
+    public Place legacy() throws SQLException {
+        return LEGACY.mapRow(row, 0);
+    }
+}
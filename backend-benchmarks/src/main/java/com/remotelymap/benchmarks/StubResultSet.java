@@ -0,0 +1,52 @@
+package com.remotelymap.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A one-row {@link ResultSet} that behaves like pgjdbc once a statement is server-prepared and
+ * values arrive in binary form: typed getters hand back the decoded value, while getString and
+ * getTimestamp have to build a String or Timestamp from it first. Like the driver, getObject does
+ * not convert between number types: a NUMERIC column has to be read with getBigDecimal.
+ */
+final class StubResultSet {
+
+    private StubResultSet() {
+    }
+
+    static ResultSet of(Map<String, Object> row) {
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("wasNull")) {
+                    return wasNull[0];
+                }
+                Object value = row.get((String) args[0]);
+                wasNull[0] = value == null;
+                return switch (name) {
+                    case "getString" -> value == null ? null : value.toString();
+                    case "getDouble" -> value == null ? 0.0 : ((Number) value).doubleValue();
+                    case "getBigDecimal" -> value == null ? null : new BigDecimal(value.toString());
+                    case "getTimestamp" -> value == null ? null : Timestamp.from(((OffsetDateTime) value).toInstant());
+                    case "getObject" -> convert(value, (Class<?>) args[1]);
+                    default -> throw new UnsupportedOperationException(name);
+                };
+            });
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type == UUID.class) {
+            return UUID.fromString(value.toString());
+        }
+        throw new UnsupportedOperationException("No conversion to " + type);
+    }
+}
@@ -0,0 +1,74 @@
+package com.remotelymap.api.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.remotelymap.api.controller.CachedBody;
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.model.PlacePhoto;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PLACES_CACHE = "places";
+    public static final String PLACE_RESPONSES_CACHE = "placeResponses";
+
+    @Bean
+    public CacheManager cacheManager(PlacesProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PLACES_CACHE, placesCache(properties.getCache()));
+        cacheManager.registerCustomCache(PLACE_RESPONSES_CACHE, responsesCache(properties.getCache()));
+        // Evictions issued inside a transaction only take effect once it commits,
+        // so a rolled-back update can't leave the cache emptier than the table
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> placesCache(PlacesProperties.Cache settings) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(settings.getTtl())
+                .recordStats();
+        if (settings.getMaximumWeight() > 0) {
+            builder.maximumWeight(settings.getMaximumWeight())
+                    .weigher((key, value) -> estimateSize(value));
+        } else {
+            builder.maximumSize(settings.getMaximumSize());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Bounded by the bytes it holds. Entries carry the ETag they were written for and are only served
+     * while it is current, so they need no expiry.
+     */
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> responsesCache(PlacesProperties.Cache settings) {
+        return Caffeine.newBuilder()
+                .maximumWeight(settings.getResponseMaximumWeight())
+                .weigher((key, value) -> value instanceof CachedBody body ? body.weight() : 64)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Rough heap footprint in bytes: a fixed overhead for the object graph plus two bytes per character.
+     */
+    static int estimateSize(Object value) {
+        if (!(value instanceof Place place)) {
+            return 64;
+        }
+        int chars = length(place.getName()) + length(place.getDescription()) + length(place.getAddress());
+        if (place.getPhotos() != null) {
+            for (PlacePhoto photo : place.getPhotos()) {
+                chars += 64 + length(photo.getPhotoUrl());
+            }
+        }
+        return 256 + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,125 @@
+package com.remotelymap.api.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Layers the pool according to {@code places.db}: a {@link ReplicaRoutingDataSource} when replicas are
+     * configured, then a {@link ConcurrencyLimitingDataSource} when {@code max-concurrency} is set, and
+     * finally, for routing, a {@link LazyConnectionDataSourceProxy} so the connection is chosen once the
+     * transaction's read-only flag is known. Static, and reading the environment directly, because
+     * post-processors are created before configuration properties beans exist.
+     */
+    @Bean
+    static BeanPostProcessor dataSourceLayersPostProcessor(Environment environment) {
+        return new DestructionAwareBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+                    return bean;
+                }
+                Binder binder = Binder.get(environment);
+                PlacesProperties.Db settings = binder.bind("places.db", PlacesProperties.Db.class)
+                        .orElseGet(PlacesProperties.Db::new);
+                boolean routing = !settings.getReplicas().isEmpty();
+
+                DataSource layered = dataSource;
+                if (routing) {
+                    layered = new ReplicaRoutingDataSource(dataSource, replicaPools(dataSource, settings.getReplicas(), binder),
+                            settings.getMaxReplicaLag(), settings.getReplicaLagCheckInterval());
+                }
+                if (settings.getMaxConcurrency() > 0) {
+                    layered = new ConcurrencyLimitingDataSource(layered, settings.getMaxConcurrency(), settings.getAcquireTimeout());
+                }
+                return routing ? new LazyConnectionDataSourceProxy(layered) : layered;
+            }
+
+            @Override
+            public boolean requiresDestruction(Object bean) {
+                return bean instanceof DelegatingDataSource;
+            }
+
+            /**
+             * The pools sit underneath the layers, out of reach of the close() Spring infers for the bean.
+             */
+            @Override
+            public void postProcessBeforeDestruction(Object bean, String beanName) {
+                DataSource layer = (DataSource) bean;
+                while (layer instanceof DelegatingDataSource delegating) {
+                    layer = delegating.getTargetDataSource();
+                }
+                if (layer instanceof AutoCloseable closeable) {
+                    try {
+                        closeable.close();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Could not close data source " + beanName, e);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Binds the metrics of the layers under the data source bean. The bean itself is bound by the
+     * metrics auto-configuration when it is a {@link MeterBinder}, but it can't see further in.
+     */
+    @Bean
+    MeterBinder dataSourceLayerMetrics(DataSource dataSource) {
+        return registry -> {
+            DataSource layer = dataSource;
+            while (layer instanceof DelegatingDataSource delegating) {
+                layer = delegating.getTargetDataSource();
+                if (layer instanceof MeterBinder binder) {
+                    binder.bindTo(registry);
+                }
+            }
+        };
+    }
+
+    private static Map<String, DataSource> replicaPools(DataSource primary, List<PlacesProperties.Replica> replicas,
+                                                        Binder binder) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            PlacesProperties.Replica replica = replicas.get(i);
+            String name = "replica-" + i;
+            String username = replica.getUsername() != null ? replica.getUsername()
+                    : binder.bind("spring.datasource.username", String.class).orElse(null);
+            String password = replica.getPassword() != null ? replica.getPassword()
+                    : binder.bind("spring.datasource.password", String.class).orElse(null);
+            if (primary instanceof HikariDataSource hikari) {
+                // Same pool settings as the primary, pointed elsewhere
+                HikariConfig config = new HikariConfig();
+                hikari.copyStateTo(config);
+                config.setJdbcUrl(replica.getUrl());
+                config.setUsername(username);
+                config.setPassword(password);
+                config.setPoolName(name);
+                config.setReadOnly(true);
+                // A replica that is down at startup only stays out of rotation until it answers
+                config.setInitializationFailTimeout(-1);
+                pools.put(name, new HikariDataSource(config));
+            } else {
+                pools.put(name, DataSourceBuilder.create().url(replica.getUrl()).username(username).password(password).build());
+            }
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,32 @@
+package com.remotelymap.api.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.remotelymap.api.dto.PlaceResponse;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets responses leave out fields of a place that the client didn't ask for. Every mapper built by
+ * Boot's builder sees {@link PlaceResponse} as filtered by {@link #PLACE_FILTER}, which writes all
+ * properties unless a response supplies a filter of its own. The filter only looks at property names
+ * on Jackson's cached serializer, so nothing is introspected per request. Added as a mix-in so that
+ * mappers built elsewhere, which have no filter to find, keep writing places as before.
+ */
+@Configuration
+public class PlaceFieldsConfig {
+    public static final String PLACE_FILTER = "placeFields";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer placeFieldsFilter() {
+        return builder -> builder
+                .mixIn(PlaceResponse.class, FilteredPlace.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(PLACE_FILTER)
+    private interface FilteredPlace {
+    }
+}
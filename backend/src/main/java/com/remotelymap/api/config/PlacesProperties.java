@@ -0,0 +1,222 @@
+package com.remotelymap.api.config;
+
+import com.remotelymap.api.dto.TotalKind;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "places")
+public class PlacesProperties {
+    private final Count count = new Count();
+    private final Cache cache = new Cache();
+    private final Batch batch = new Batch();
+    private final Lookup lookup = new Lookup();
+    private final Export export = new Export();
+    private final Photos photos = new Photos();
+    private final Db db = new Db();
+    private final Changes changes = new Changes();
+    private final Viewport viewport = new Viewport();
+    private final Sync sync = new Sync();
+
+    // "import" is a keyword, so the field can't carry the property name
+    @Getter(AccessLevel.NONE)
+    private final Import importSettings = new Import();
+
+    public Import getImport() {
+        return importSettings;
+    }
+
+    @Data
+    public static class Count {
+        /** Kind of total returned when a list request doesn't ask for one. */
+        private TotalKind defaultKind = TotalKind.CACHED;
+
+        /** How long the cached count is trusted before it is recounted. */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /** Below this many rows an estimate is replaced by an exact count, which is cheap at that size. */
+        private long exactThreshold = 10_000;
+    }
+
+    @Data
+    public static class Cache {
+        /** Maximum number of places kept in the by-id cache. */
+        private long maximumSize = 10_000;
+
+        /** When positive, bound the cache by estimated payload bytes instead of entry count. */
+        private long maximumWeight = 0;
+
+        /** How long a cached place is served before it is reloaded. */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /** Bytes of serialized place and page bodies kept ready to write; 0 turns that cache off. */
+        private long responseMaximumWeight = 32 * 1024 * 1024;
+    }
+
+    @Data
+    public static class Batch {
+        /** Rows written per statement, i.e. per database round trip. */
+        private int chunkSize = 500;
+
+        /** Largest number of items accepted by one batch request. */
+        private int maxItems = 10_000;
+    }
+
+    @Data
+    public static class Lookup {
+        /** Largest number of ids one lookup request may ask for. */
+        private int maxIds = 1_000;
+    }
+
+    @Data
+    public static class Import {
+        /** Log a progress line every this many records. */
+        private long progressInterval = 50_000;
+
+        /** How many rejected records are described in the import result; the rest are only counted. */
+        private int maxReportedRejections = 100;
+    }
+
+    @Data
+    public static class Export {
+        /** Rows pulled from the server-side cursor per round trip while exporting. */
+        private int fetchSize = 1_000;
+    }
+
+    @Data
+    public static class Photos {
+        /** Directory the local photo store writes into. */
+        private Path root = Path.of("data", "photos");
+
+        /** Upload content types that are accepted and later served back as is. */
+        private Set<String> allowedContentTypes = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+
+        /** Cache lifetime announced for served photos, which never change under their URL. */
+        private Duration cacheMaxAge = Duration.ofDays(365);
+
+        private final Derivatives derivatives = new Derivatives();
+    }
+
+    @Data
+    public static class Derivatives {
+        /** Whether this instance renders thumbnails; jobs are still queued when it doesn't. */
+        private boolean enabled = true;
+
+        /** Largest width of each rendered variant, named w{width}. Narrower originals are not upscaled. */
+        private List<Integer> widths = List.of(200, 800);
+
+        /** Photos rendered concurrently. Each one holds a decoded image in memory. */
+        private int workers = 2;
+
+        /** How often the job table is checked for work that wasn't announced by an upload on this instance. */
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        /** How long a claimed job stays with its worker before another instance may take it over. */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Largest original, in pixels, that is decoded; larger photos fail their job without a retry.
+         * A decoded image takes four bytes per pixel, so the default holds up to 160 MB per worker.
+         */
+        private long maxPixels = 40_000_000;
+
+        /**
+         * Attempts before a job is marked failed and left alone. A claim counts as an attempt even when
+         * its worker never reports back, so a photo that takes the instance down is not retried forever.
+         */
+        private int maxAttempts = 5;
+
+        /** Delay before a failed attempt is retried, multiplied by the number of attempts so far. */
+        private Duration retryBackoff = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Db {
+        /**
+         * Most connections handed out at once, enforced in front of the pool; 0 leaves it to the pool.
+         * With virtual threads nothing else caps how many requests reach the database.
+         */
+        private int maxConcurrency = 0;
+
+        /** How long a caller waits for a connection permit before the request is answered with 503. */
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+
+        /** Read replicas that read-only transactions are spread over; with none, everything goes to the primary. */
+        private List<Replica> replicas = new ArrayList<>();
+
+        /** Replicas further behind the primary than this get no reads until they catch up. */
+        private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+        /** How often each replica's lag is measured. */
+        private Duration replicaLagCheckInterval = Duration.ofSeconds(1);
+
+        /**
+         * How long a client reads from the primary after one of its writes, so it sees what it wrote.
+         * A replica in use is at most max-replica-lag behind, measured at most one check interval ago.
+         */
+        public Duration getReadYourWritesWindow() {
+            return maxReplicaLag.plus(replicaLagCheckInterval);
+        }
+    }
+
+    @Data
+    public static class Viewport {
+        /** Most places a viewport returns one by one; with more in view they are clustered. */
+        private int maxPlaces = 200;
+
+        /** Clustering grid cells per 256px map tile, i.e. cells of 64px at the requested zoom. */
+        private int cellsPerTile = 4;
+
+        /** Most grid cells a viewport spans each way, whatever its zoom; bounds the number of clusters. */
+        private int maxCellsPerAxis = 16;
+    }
+
+    @Data
+    public static class Sync {
+        /**
+         * How long deletions are remembered. A client that hasn't synced for longer must start over,
+         * as it could otherwise miss them.
+         */
+        private Duration tombstoneRetention = Duration.ofDays(30);
+
+        /** How often tombstones past their retention are dropped. */
+        private Duration purgeInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Changes {
+        /** Events queued for one subscriber. A subscriber that falls further behind is told to resync. */
+        private int bufferSize = 256;
+
+        /** Streams open at once on this instance; more are answered with 503. */
+        private int maxSubscribers = 10_000;
+
+        /** How often an idle stream gets a comment, so proxies keep it open and dead clients are noticed. */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /** How long a stream stays open before the client is made to reconnect. */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /** Pause before the listening connection is reopened after it was lost. */
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+
+        /** Defaults to spring.datasource.username. */
+        private String username;
+
+        /** Defaults to spring.datasource.password. */
+        private String password;
+    }
+}
@@ -0,0 +1,24 @@
+package com.remotelymap.api.config;
+
+/**
+ * Marks the current thread's work as needing the primary even for read-only transactions, because
+ * its client wrote recently and a replica might not have that write yet.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.remotelymap.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. Replicas take turns,
+ * and one whose last measured lag exceeds the bound, or that couldn't be reached, is passed over until
+ * it recovers. With no usable replica, reads fall back to the primary. So does a thread that
+ * {@link ReadYourWrites} pinned to it.
+ * <p>
+ * The transaction's read-only flag is only known once it has begun, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the connection
+ * at the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+    private static final String LAG_QUERY = """
+        SELECT CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()), 0)
+        END
+        """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final int queryTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagMonitor;
+    private volatile Map<String, Counter> routed = Map.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration lagCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.queryTimeoutSeconds = (int) Math.max(1, maxLag.toSeconds());
+        this.lagMonitor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+        lagMonitor.scheduleWithFixedDelay(this::measureLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                count(replica.name);
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, reading from the primary until it answers again", replica.name, e);
+                replica.lagSeconds = Double.POSITIVE_INFINITY;
+            }
+        }
+        count("primary");
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        count("primary");
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Unwraps to the primary, so that pool metrics and health checks keep finding its pool.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * @return null when the connection should come from the primary
+     */
+    Replica chooseReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinnedToPrimary()) {
+            return null;
+        }
+        double maxLagSeconds = maxLag.toNanos() / 1e9;
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lagSeconds <= maxLagSeconds) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void measureLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(queryTimeoutSeconds);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.lagSeconds = rs.getDouble(1);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (replica.lagSeconds != Double.POSITIVE_INFINITY) {
+                    log.warn("Could not measure the lag of replica {}, taking it out of rotation", replica.name, e);
+                }
+                replica.lagSeconds = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Counter> counters = new HashMap<>();
+        counters.put("primary", routeCounter(registry, "primary"));
+        for (Replica replica : replicas) {
+            counters.put(replica.name, routeCounter(registry, replica.name));
+            Gauge.builder("places.db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of the replica as last measured; +Inf while it can't be reached")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+        routed = counters;
+    }
+
+    private static Counter routeCounter(MeterRegistry registry, String target) {
+        return Counter.builder("places.db.route")
+                .description("Connections handed out, by the database they came from")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    private void count(String target) {
+        Counter counter = routed.get(target);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        lagMonitor.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        // Unknown until first measured, so a replica only gets reads once it has answered
+        volatile double lagSeconds = Double.POSITIVE_INFINITY;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
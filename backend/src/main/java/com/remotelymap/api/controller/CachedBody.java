@@ -0,0 +1,14 @@
+package com.remotelymap.api.controller;
+
+/**
+ * A JSON response body as written for one ETag, and its gzipped form when the response may be compressed.
+ */
+public record CachedBody(String eTag, byte[] json, byte[] gzipped) {
+
+    /**
+     * Bytes held, with a rough allowance for the record and its key.
+     */
+    public int weight() {
+        return 128 + json.length + (gzipped == null ? 0 : gzipped.length);
+    }
+}
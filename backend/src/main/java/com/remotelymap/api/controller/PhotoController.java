@@ -0,0 +1,115 @@
+package com.remotelymap.api.controller;
+
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.model.PlacePhoto;
+import com.remotelymap.api.service.PlaceService;
+import com.remotelymap.api.storage.PhotoStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/photos")
+@RequiredArgsConstructor
+@Tag(name = "Photos", description = "Photo download APIs")
+public class PhotoController {
+    private final PlaceService placeService;
+    private final PhotoStore photoStore;
+    private final PlacesProperties properties;
+
+    @Operation(
+        summary = "Download a photo",
+        description = "Streams a stored photo. Supports Range requests and conditional requests via If-None-Match"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Photo content"
+        ),
+        @ApiResponse(
+            responseCode = "206",
+            description = "Requested range of the photo"
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Photo unchanged since the given ETag"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Photo not found"
+        )
+    })
+    @GetMapping("/{placeId}/{photoId}")
+    public ResponseEntity<Resource> getPhoto(
+            @Parameter(description = "Place ID")
+            @PathVariable UUID placeId,
+            @Parameter(description = "Photo ID")
+            @PathVariable UUID photoId) {
+        // Spring answers If-None-Match with 304 from the ETag set here, and turns a Range
+        // header into a 206 that only reads the requested region of the file
+        return placeService.getPhoto(placeId, photoId)
+                .filter(photo -> photo.getChecksum() != null)
+                .flatMap(photo -> photoStore.load(placeId, photoId).map(resource -> ResponseEntity.ok()
+                        .eTag(photo.getChecksum())
+                        .contentType(mediaType(photo))
+                        .cacheControl(CacheControl.maxAge(properties.getPhotos().getCacheMaxAge()).cachePublic().immutable())
+                        .header("X-Content-Type-Options", "nosniff")
+                        .body(resource)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+        summary = "Download a resized photo",
+        description = "Streams a thumbnail rendered from a stored photo, e.g. variant w200. Variants appear on the place once they are ready"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Thumbnail content"
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Thumbnail unchanged since the given ETag"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Photo or variant not found, or not rendered yet"
+        )
+    })
+    @GetMapping("/{placeId}/{photoId}/{variant}")
+    public ResponseEntity<Resource> getPhotoDerivative(
+            @Parameter(description = "Place ID")
+            @PathVariable UUID placeId,
+            @Parameter(description = "Photo ID")
+            @PathVariable UUID photoId,
+            @Parameter(description = "Variant name, e.g. w200")
+            @PathVariable String variant) {
+        return placeService.getPhotoDerivative(placeId, photoId, variant)
+                .flatMap(derivative -> photoStore.loadDerivative(placeId, photoId, variant).map(resource -> ResponseEntity.ok()
+                        .eTag(derivative.getChecksum())
+                        .contentType(MediaType.parseMediaType(derivative.getContentType()))
+                        .cacheControl(CacheControl.maxAge(properties.getPhotos().getCacheMaxAge()).cachePublic().immutable())
+                        .header("X-Content-Type-Options", "nosniff")
+                        .body(resource)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static MediaType mediaType(PlacePhoto photo) {
+        return photo.getContentType() != null
+                ? MediaType.parseMediaType(photo.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -0,0 +1,47 @@
+package com.remotelymap.api.controller;
+
+import com.remotelymap.api.dto.PlaceChangeEvent;
+import com.remotelymap.api.service.PlaceChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/places")
+@RequiredArgsConstructor
+@Tag(name = "Places", description = "Places management APIs")
+public class PlaceChangeController {
+    private final PlaceChangeFeed placeChangeFeed;
+
+    @Operation(
+        summary = "Stream changes to places",
+        description = "Server-sent events named created, updated or deleted, each carrying the id of the place "
+                + "and its new updatedAt. The stream opens with a ready event and may send resync when events "
+                + "were lost; after either, reload what is shown. Replaces polling the list for changes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Event stream",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                schema = @Schema(implementation = PlaceChangeEvent.class))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "This instance serves as many streams as it is allowed to"
+        )
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges() {
+        return placeChangeFeed.subscribe();
+    }
+}
@@ -1,12 +1,33 @@
 package com.remotelymap.api.controller;
 
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.BatchItemResult;
+import com.remotelymap.api.dto.BatchItemStatus;
+import com.remotelymap.api.dto.BatchResponse;
+import com.remotelymap.api.dto.CursorPageResponse;
 import com.remotelymap.api.dto.PaginatedResponse;
 import com.remotelymap.api.dto.PhotoUploadResponse;
+import com.remotelymap.api.dto.PlaceBatchUpdateItem;
+import com.remotelymap.api.dto.PlaceLookupResponse;
 import com.remotelymap.api.dto.PlaceRequest;
 import com.remotelymap.api.dto.PlaceResponse;
+import com.remotelymap.api.dto.SyncResponse;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.dto.ViewportResponse;
 import com.remotelymap.api.mapper.PlaceMapper;
 import com.remotelymap.api.model.Place;
+import com.remotelymap.api.repository.GeoBox;
+import com.remotelymap.api.repository.PlaceCursor;
+import com.remotelymap.api.repository.PlaceDelta;
+import com.remotelymap.api.repository.PlaceProjection;
+import com.remotelymap.api.repository.RankedPlace;
+import com.remotelymap.api.repository.SearchCursor;
+import com.remotelymap.api.repository.SyncToken;
+import com.remotelymap.api.service.PlaceCount;
 import com.remotelymap.api.service.PlaceService;
+import com.remotelymap.api.service.PlaceSyncPage;
+import com.remotelymap.api.service.PlaceSyncService;
+import com.remotelymap.api.service.PlaceViewport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,14 +36,35 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,7 +74,10 @@ import java.util.stream.Collectors;
 @Tag(name = "Places", description = "Places management APIs")
 public class PlaceController {
     private final PlaceService placeService;
+    private final PlaceSyncService placeSyncService;
     private final PlaceMapper placeMapper;
+    private final PlacesProperties properties;
+    private final PlaceResponseCache responseCache;
 
     @Operation(
         summary = "Create a new place",
@@ -50,54 +95,398 @@ public class PlaceController {
         )
     })
     @PostMapping
-    public ResponseEntity<PlaceResponse> createPlace(@Valid @RequestBody PlaceRequest request) {
+    public ResponseEntity<PlaceResponse> createPlace(@Valid @RequestBody PlaceRequest request, WebRequest webRequest) {
         Place place = placeMapper.toEntity(request);
         Place savedPlace = placeService.createPlace(place);
-        return new ResponseEntity<>(placeMapper.toResponse(savedPlace), HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(PlaceETags.of(savedPlace, format(webRequest)))
+                .body(placeMapper.toResponse(savedPlace));
+    }
+
+    @Operation(
+        summary = "Create places in bulk",
+        description = "Creates all given places in one transaction, writing them in chunks of one statement each. "
+                + "Results are returned in request order"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Places created successfully",
+            content = @Content(schema = @Schema(implementation = BatchResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid input or too many items"
+        )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> createPlaces(@RequestBody @Valid List<@Valid PlaceRequest> requests) {
+        checkBatchSize(requests.size());
+        List<Place> places = requests.stream()
+                .map(placeMapper::toEntity)
+                .collect(Collectors.toList());
+
+        List<Place> saved = placeService.createPlaces(places);
+
+        List<BatchItemResult> results = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            Place place = saved.get(i);
+            results.add(new BatchItemResult(i, place.getId(), BatchItemStatus.CREATED, placeMapper.toResponse(place)));
+        }
+        return new ResponseEntity<>(BatchResponse.of(results), HttpStatus.CREATED);
+    }
+
+    @Operation(
+        summary = "Update places in bulk",
+        description = "Updates all given places in one transaction. Items whose id doesn't exist are reported as NOT_FOUND"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed",
+            content = @Content(schema = @Schema(implementation = BatchResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid input, duplicate ids or too many items"
+        )
+    })
+    @PutMapping("/batch")
+    public ResponseEntity<BatchResponse> updatePlaces(@RequestBody @Valid List<@Valid PlaceBatchUpdateItem> items) {
+        checkBatchSize(items.size());
+        checkDistinct(items.stream().map(PlaceBatchUpdateItem::getId).collect(Collectors.toList()));
+        List<Place> places = items.stream()
+                .map(placeMapper::toEntity)
+                .collect(Collectors.toList());
+
+        Map<UUID, Place> updated = placeService.updatePlaces(places);
+
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            UUID id = items.get(i).getId();
+            Place place = updated.get(id);
+            results.add(place != null
+                    ? new BatchItemResult(i, id, BatchItemStatus.UPDATED, placeMapper.toResponse(place))
+                    : new BatchItemResult(i, id, BatchItemStatus.NOT_FOUND, null));
+        }
+        return ResponseEntity.ok(BatchResponse.of(results));
+    }
+
+    @Operation(
+        summary = "Delete places in bulk",
+        description = "Deletes all given places in one transaction. Ids that don't exist are reported as NOT_FOUND"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed",
+            content = @Content(schema = @Schema(implementation = BatchResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Duplicate ids or too many items"
+        )
+    })
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResponse> deletePlaces(@RequestBody @Valid List<@NotNull UUID> ids) {
+        checkBatchSize(ids.size());
+        checkDistinct(ids);
+
+        Set<UUID> deleted = placeService.deletePlaces(ids);
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            UUID id = ids.get(i);
+            results.add(new BatchItemResult(i, id,
+                    deleted.contains(id) ? BatchItemStatus.DELETED : BatchItemStatus.NOT_FOUND, null));
+        }
+        return ResponseEntity.ok(BatchResponse.of(results));
     }
 
     @Operation(
         summary = "Get all places",
-        description = "Retrieves a paginated list of all places"
+        description = "Retrieves a paginated list of all places, newest first. Pass the nextCursor of a "
+                + "previous response as 'after' to page by cursor instead of by page number. The page "
+                + "carries an ETag; send it back in If-None-Match to get 304 while the page is unchanged."
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "Successfully retrieved places",
             content = @Content(schema = @Schema(implementation = PaginatedResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The page still matches the ETag in If-None-Match"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor, page or size, or unknown field"
         )
     })
     @GetMapping
     public ResponseEntity<PaginatedResponse<PlaceResponse>> getAllPlaces(
-            @Parameter(description = "Page number (0-based)") 
-            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page number (0-based), ignored when 'after' is given") 
+            @RequestParam(defaultValue = "0") @Min(0) int page,
             @Parameter(description = "Number of items per page") 
-            @RequestParam(defaultValue = "10") int size) {
-        
-        List<Place> places = placeService.getAllPlaces(page, size);
-        long totalElements = placeService.countPlaces();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        
-        List<PlaceResponse> placeResponses = places.stream()
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @Parameter(description = "Opaque cursor taken from the nextCursor of a previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "How to compute totalElements: exact, estimated or cached. "
+                    + "Defaults to the server's configured kind, except with 'after', where page and the "
+                    + "totals are left out unless asked for; exact costs a full table count")
+            @RequestParam(required = false) String includeTotal,
+            @Parameter(description = "Comma-separated fields to return, such as id,name,rating. All fields "
+                    + "when omitted; the id is always returned")
+            @RequestParam(required = false) String fields,
+            ServletWebRequest webRequest) throws IOException {
+
+        TotalKind totalKind = parseTotalKind(includeTotal);
+        PlaceProjection projection = parseFields(fields);
+        PlaceFieldsAdvice.select(webRequest, projection);
+        if (after != null) {
+            return getPlacesAfter(decodeCursor(after), size, totalKind, projection, webRequest);
+        }
+
+        List<Place> places = placeService.getAllPlaces(page, size, projection);
+        PlaceCount total = placeService.countPlaces(totalKind);
+        String eTag = PlaceETags.ofPage(places, total);
+        if (webRequest.checkNotModified(eTag)) {
+            // 304 is already set up; skip mapping and serializing the page
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag);
+        if (projection.isAll() && responseCache.serves(webRequest)) {
+            responseCache.write(PlaceResponseCache.pageKey(page, size), ok.build().getHeaders(),
+                    () -> toPage(places, page, size, total), webRequest);
+            return null;
+        }
+        return ok.body(toPage(places, page, size, total));
+    }
+
+    @Operation(
+        summary = "Get many places by id",
+        description = "Resolves up to places.lookup.max-ids ids in one request, served from the cache where "
+                + "possible and otherwise with one query. Places come back in request order, each once; "
+                + "ids that don't exist are listed in 'missing'"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Places found and ids missing",
+            content = @Content(schema = @Schema(implementation = PlaceLookupResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No ids or too many ids"
+        )
+    })
+    @PostMapping("/lookup")
+    public ResponseEntity<PlaceLookupResponse> lookupPlaces(@RequestBody @Valid List<@NotNull UUID> ids) {
+        int maxIds = properties.getLookup().getMaxIds();
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A lookup must contain between 1 and " + maxIds + " ids");
+        }
+        Set<UUID> distinct = new LinkedHashSet<>(ids);
+        Map<UUID, Place> found = placeService.getPlacesByIds(distinct);
+
+        List<PlaceResponse> places = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : distinct) {
+            Place place = found.get(id);
+            if (place != null) {
+                places.add(placeMapper.toResponse(place));
+            } else {
+                missing.add(id);
+            }
+        }
+        return ResponseEntity.ok(new PlaceLookupResponse(places, missing));
+    }
+
+    @Operation(
+        summary = "Find places near a location",
+        description = "Retrieves up to 'limit' places within 'radius' meters of the given coordinates, nearest first"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved nearby places"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid coordinates, radius or limit"
+        )
+    })
+    @GetMapping("/nearby")
+    public ResponseEntity<List<PlaceResponse>> getNearbyPlaces(
+            @Parameter(description = "Latitude of the search center")
+            @RequestParam @DecimalMin("-90.0") @DecimalMax("90.0") double lat,
+            @Parameter(description = "Longitude of the search center")
+            @RequestParam @DecimalMin("-180.0") @DecimalMax("180.0") double lng,
+            @Parameter(description = "Search radius in meters")
+            @RequestParam(defaultValue = "5000") @Positive @Max(50_000) double radius,
+            @Parameter(description = "Maximum number of places to return")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        List<PlaceResponse> places = placeService.getNearbyPlaces(lat, lng, radius, limit).stream()
                 .map(placeMapper::toResponse)
                 .collect(Collectors.toList());
-        
-        PaginatedResponse<PlaceResponse> response = new PaginatedResponse<>(
-            placeResponses,
-            page,
+        return ResponseEntity.ok(places);
+    }
+
+    @Operation(
+        summary = "Get what a map viewport shows",
+        description = "Returns the places inside the box when there are few enough to show one by one, and "
+                + "otherwise clusters of them (count, centroid and bounds) on a grid that follows the zoom. "
+                + "Either way the response stays small. A box with minLng greater than maxLng crosses the antimeridian"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Places or clusters in the viewport",
+            content = @Content(schema = @Schema(implementation = ViewportResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid bounds or zoom"
+        )
+    })
+    @GetMapping("/viewport")
+    public ResponseEntity<ViewportResponse> getViewport(
+            @Parameter(description = "Southern edge")
+            @RequestParam @DecimalMin("-90.0") @DecimalMax("90.0") double minLat,
+            @Parameter(description = "Western edge")
+            @RequestParam @DecimalMin("-180.0") @DecimalMax("180.0") double minLng,
+            @Parameter(description = "Northern edge")
+            @RequestParam @DecimalMin("-90.0") @DecimalMax("90.0") double maxLat,
+            @Parameter(description = "Eastern edge")
+            @RequestParam @DecimalMin("-180.0") @DecimalMax("180.0") double maxLng,
+            @Parameter(description = "Zoom level of the map, 0 showing the whole world")
+            @RequestParam @Min(0) @Max(22) int zoom) {
+        if (minLat > maxLat) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minLat must not be greater than maxLat");
+        }
+        PlaceViewport viewport = placeService.getViewport(new GeoBox(minLat, minLng, maxLat, maxLng), zoom);
+        return ResponseEntity.ok(new ViewportResponse(
+            zoom,
+            viewport.isClustered(),
+            viewport.places().stream().map(placeMapper::toResponse).toList(),
+            viewport.clusters().stream().map(placeMapper::toResponse).toList()
+        ));
+    }
+
+    @Operation(
+        summary = "Search places",
+        description = "Full-text search over name, address and description that also tolerates typos in "
+                + "name and address. Words of 3 or more letters or digits match as prefixes, shorter words "
+                + "only match whole words, and the query needs at least one word of 3. Results are ordered "
+                + "by relevance; pass the nextCursor of a previous response as 'after' to get the next page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Matching places, most relevant first"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Missing query, no word of 3 characters, invalid size, invalid cursor or unknown field"
+        )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<PlaceResponse>> searchPlaces(
+            @Parameter(description = "Search text, with at least one word of 3 letters or digits")
+            @RequestParam @NotBlank @Size(max = 200) String q,
+            @Parameter(description = "Number of items per page")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @Parameter(description = "Opaque cursor taken from the nextCursor of a previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Comma-separated fields to return, such as id,name,rating. All fields "
+                    + "when omitted; the id is always returned")
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        PlaceProjection projection = parseFields(fields);
+        PlaceFieldsAdvice.select(webRequest, projection);
+        SearchCursor cursor = null;
+        if (after != null) {
+            try {
+                cursor = SearchCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        List<RankedPlace> hits = placeService.searchPlaces(q.trim(), cursor, size + 1, projection);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+
+        List<PlaceResponse> places = hits.stream()
+                .map(hit -> placeMapper.toResponse(hit.place()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new CursorPageResponse<>(
+            places,
             size,
-            totalElements,
-            totalPages,
-            page < totalPages - 1,
-            page > 0
-        );
-        
-        return ResponseEntity.ok(response);
+            hasNext,
+            hasNext ? SearchCursor.of(hits.get(hits.size() - 1)).encode() : null
+        ));
+    }
+
+    @Operation(
+        summary = "Sync changes to places",
+        description = "Returns the places created or updated and the ids of places deleted since 'since', "
+                + "in pages. Without 'since' every place is returned. Page on with nextToken while hasMore is "
+                + "true, then keep the last nextToken for the next sync. The cost follows the number of "
+                + "changes, not the number of places."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Changes since the token",
+            content = @Content(schema = @Schema(implementation = SyncResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid token or size"
+        ),
+        @ApiResponse(
+            responseCode = "410",
+            description = "The token is older than the deletions kept; sync again without one"
+        )
+    })
+    @GetMapping("/sync")
+    public ResponseEntity<SyncResponse> syncPlaces(
+            @Parameter(description = "nextToken of the previous sync response")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Most changes per page")
+            @RequestParam(defaultValue = "500") @Min(1) @Max(1000) int size) {
+        SyncToken token = SyncToken.initial();
+        if (since != null) {
+            try {
+                token = SyncToken.decode(since);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+            }
+        }
+
+        PlaceSyncPage page = placeSyncService.getChanges(token, size);
+        List<PlaceResponse> changed = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        for (PlaceDelta delta : page.deltas()) {
+            if (delta.isDeleted()) {
+                deleted.add(delta.id());
+            } else {
+                changed.add(placeMapper.toResponse(delta.place()));
+            }
+        }
+        return ResponseEntity.ok(new SyncResponse(changed, deleted, page.nextToken().encode(), page.hasMore()));
     }
 
     @Operation(
         summary = "Get place by ID",
-        description = "Retrieves a specific place by its ID"
+        description = "Retrieves a specific place by its ID. The response carries an ETag and Last-Modified; "
+                + "send them back in If-None-Match or If-Modified-Since to get 304 while the place is unchanged."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -105,6 +494,14 @@ public class PlaceController {
             description = "Place found",
             content = @Content(schema = @Schema(implementation = PlaceResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The place still matches If-None-Match or If-Modified-Since"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown field"
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Place not found"
@@ -113,15 +510,44 @@ public class PlaceController {
     @GetMapping("/{id}")
     public ResponseEntity<PlaceResponse> getPlaceById(
             @Parameter(description = "Place ID") 
-            @PathVariable UUID id) {
-        return placeService.getPlaceById(id)
-                .map(place -> ResponseEntity.ok(placeMapper.toResponse(place)))
-                .orElse(ResponseEntity.notFound().build());
+            @PathVariable UUID id,
+            @Parameter(description = "Comma-separated fields to return, such as id,name,rating. All fields "
+                    + "when omitted; the id is always returned")
+            @RequestParam(required = false) String fields,
+            ServletWebRequest webRequest) throws IOException {
+        // Served whole from the cache and trimmed as it is written
+        PlaceProjection projection = parseFields(fields);
+        PlaceFieldsAdvice.select(webRequest, projection);
+        if (isConditional(webRequest)) {
+            // Only the version is needed to answer a revalidation, not the place and its photos
+            Optional<OffsetDateTime> version = placeService.getPlaceVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(PlaceETags.of(id, version.get(), format(webRequest)), version.get().toInstant().toEpochMilli())) {
+                return null;
+            }
+        }
+        Optional<Place> found = placeService.getPlaceById(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Place place = found.get();
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(PlaceETags.of(place, format(webRequest)))
+                .lastModified(place.getUpdatedAt().toInstant());
+        if (projection.isAll() && responseCache.serves(webRequest)) {
+            responseCache.write(id, ok.build().getHeaders(), () -> placeMapper.toResponse(place), webRequest);
+            return null;
+        }
+        return ok.body(placeMapper.toResponse(place));
     }
 
     @Operation(
         summary = "Update a place",
-        description = "Updates an existing place with new details"
+        description = "Updates an existing place with new details. Send the place's ETag in If-Match to "
+                + "only update it if nobody else has changed it since"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -136,16 +562,32 @@ public class PlaceController {
         @ApiResponse(
             responseCode = "400",
             description = "Invalid input"
+        ),
+        @ApiResponse(
+            responseCode = "412",
+            description = "The place no longer matches If-Match"
         )
     })
     @PutMapping("/{id}")
     public ResponseEntity<PlaceResponse> updatePlace(
             @Parameter(description = "Place ID") 
             @PathVariable UUID id,
-            @Valid @RequestBody PlaceRequest request) {
+            @Valid @RequestBody PlaceRequest request,
+            @Parameter(description = "ETag the place must still have, or * for any version")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest webRequest) {
+        OffsetDateTime expectedVersion = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = PlaceETags.versionIn(ifMatch, id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                            "If-Match doesn't name a version of this place"));
+        }
         Place place = placeMapper.toEntity(request);
-        return placeService.updatePlace(id, place)
-                .map(updatedPlace -> ResponseEntity.ok(placeMapper.toResponse(updatedPlace)))
+        return placeService.updatePlace(id, place, expectedVersion)
+                .map(updatedPlace -> ResponseEntity.ok()
+                        .eTag(PlaceETags.of(updatedPlace, format(webRequest)))
+                        .lastModified(updatedPlace.getUpdatedAt().toInstant())
+                        .body(placeMapper.toResponse(updatedPlace)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -204,4 +646,118 @@ public class PlaceController {
                 ))
                 .orElse(ResponseEntity.notFound().build());
     }
-} 
\ No newline at end of file
+
+    private PaginatedResponse<PlaceResponse> toPage(List<Place> places, int page, int size, PlaceCount total) {
+        long totalElements = total.value();
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        boolean hasNext = page < totalPages - 1;
+        
+        List<PlaceResponse> placeResponses = places.stream()
+                .map(placeMapper::toResponse)
+                .collect(Collectors.toList());
+        
+        return new PaginatedResponse<>(
+            placeResponses,
+            page,
+            size,
+            totalElements,
+            total.kind(),
+            totalPages,
+            hasNext,
+            page > 0,
+            hasNext && !places.isEmpty() ? PlaceCursor.of(places.get(places.size() - 1)).encode() : null
+        );
+    }
+
+    private ResponseEntity<PaginatedResponse<PlaceResponse>> getPlacesAfter(PlaceCursor cursor, int size, TotalKind totalKind,
+                                                                         PlaceProjection projection, WebRequest webRequest) {
+        // Fetch one extra row to learn whether another page follows without counting
+        List<Place> places = placeService.getPlacesAfter(cursor, size + 1, projection);
+        boolean hasNext = places.size() > size;
+        if (hasNext) {
+            places = places.subList(0, size);
+        }
+
+        // Counting costs as much as the page itself, so cursor pages only carry a total when asked for one
+        PlaceCount total = totalKind != null ? placeService.countPlaces(totalKind) : null;
+        String eTag = PlaceETags.ofPage(places, total);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        List<PlaceResponse> placeResponses = places.stream()
+                .map(placeMapper::toResponse)
+                .collect(Collectors.toList());
+
+        PaginatedResponse<PlaceResponse> response = new PaginatedResponse<>(
+            placeResponses,
+            null,
+            size,
+            total != null ? total.value() : null,
+            total != null ? total.kind() : null,
+            total != null ? (int) Math.ceil((double) total.value() / size) : null,
+            hasNext,
+            // Cursors are only handed out with a page, so there always is one before this
+            true,
+            hasNext ? PlaceCursor.of(places.get(places.size() - 1)).encode() : null
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(response);
+    }
+
+    /**
+     * The format the body will be written in, which strong ETags name. When none is acceptable the
+     * request ends in 406 anyway.
+     */
+    private static PlaceFormat format(WebRequest webRequest) {
+        return PlaceFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT)).orElse(PlaceFormat.JSON);
+    }
+
+    private static boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private void checkBatchSize(int size) {
+        int maxItems = properties.getBatch().getMaxItems();
+        if (size == 0 || size > maxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch must contain between 1 and " + maxItems + " items");
+        }
+    }
+
+    private void checkDistinct(List<UUID> ids) {
+        if (new HashSet<>(ids).size() != ids.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch must not contain the same id twice");
+        }
+    }
+
+    private TotalKind parseTotalKind(String includeTotal) {
+        if (includeTotal == null) {
+            return null;
+        }
+        try {
+            return TotalKind.fromParameter(includeTotal);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "includeTotal must be one of exact, estimated, cached");
+        }
+    }
+
+    private static PlaceProjection parseFields(String fields) {
+        if (fields == null) {
+            return PlaceProjection.ALL;
+        }
+        try {
+            return PlaceProjection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private PlaceCursor decodeCursor(String after) {
+        try {
+            return PlaceCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
\ No newline at end of file
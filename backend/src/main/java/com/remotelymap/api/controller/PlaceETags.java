@@ -0,0 +1,105 @@
+package com.remotelymap.api.controller;
+
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.service.PlaceCount;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Entity tags for places. A place is tagged with its id and updated_at, which moves forward on every
+ * change to anything its representation shows. The tag is strong, as If-Match needs it. A page is tagged
+ * with a hash of the places on it and of its total, so the tag changes whenever the page body would.
+ * Page tags are weak: they are only revalidated, and Tomcat won't compress a response with a strong tag.
+ * A strong tag promises the same bytes, so a place's tag also names the format it was written in
+ * ({@code "id-version-cbor"}); JSON tags carry no suffix. Weak page tags are shared by all formats, and
+ * responses carry {@code Vary: Accept}.
+ */
+public final class PlaceETags {
+
+    private PlaceETags() {
+    }
+
+    public static String of(Place place, PlaceFormat format) {
+        return of(place.getId(), place.getUpdatedAt(), format);
+    }
+
+    public static String of(UUID id, OffsetDateTime updatedAt, PlaceFormat format) {
+        return "\"" + id + "-" + Long.toString(micros(updatedAt), 36) + format.tagSuffix() + "\"";
+    }
+
+    /**
+     * @param total the count sent with the page, or null if none was
+     */
+    public static String ofPage(List<Place> places, PlaceCount total) {
+        MessageDigest digest = sha256();
+        ByteBuffer entry = ByteBuffer.allocate(3 * Long.BYTES);
+        for (Place place : places) {
+            entry.clear();
+            entry.putLong(place.getId().getMostSignificantBits())
+                    .putLong(place.getId().getLeastSignificantBits())
+                    .putLong(micros(place.getUpdatedAt()));
+            digest.update(entry.array());
+        }
+        if (total != null) {
+            digest.update((total.value() + ":" + total.kind()).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] hash = Arrays.copyOf(digest.digest(), 16);
+        return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    }
+
+    /**
+     * Finds the version of the place that an If-Match header asks for, whichever format the tag was
+     * issued for. Weak tags never match, as If-Match compares strongly.
+     *
+     * @return empty if none of the listed tags was issued for this place
+     */
+    public static Optional<OffsetDateTime> versionIn(String ifMatch, UUID id) {
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                String version = withoutFormat(tag.substring(prefix.length(), tag.length() - 1));
+                try {
+                    long micros = Long.parseLong(version, 36);
+                    return Optional.of(OffsetDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC));
+                } catch (NumberFormatException e) {
+                    // not one of ours, try the next tag
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String withoutFormat(String version) {
+        for (PlaceFormat format : PlaceFormat.values()) {
+            if (!format.tagSuffix().isEmpty() && version.endsWith(format.tagSuffix())) {
+                return version.substring(0, version.length() - format.tagSuffix().length());
+            }
+        }
+        return version;
+    }
+
+    private static long micros(OffsetDateTime timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.remotelymap.api.controller;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.remotelymap.api.config.PlaceFieldsConfig;
+import com.remotelymap.api.repository.PlaceProjection;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes only the fields of each place that the handler selected with {@link #select}. Applies to every
+ * Jackson format, so CBOR and Smile responses are trimmed the same way as JSON.
+ */
+@RestControllerAdvice(assignableTypes = PlaceController.class)
+public class PlaceFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+    private static final String PROJECTION_ATTRIBUTE = PlaceFieldsAdvice.class.getName() + ".projection";
+
+    // One per combination of fields, and there are only so many of those
+    private final Map<PlaceProjection, FilterProvider> filters = new ConcurrentHashMap<>();
+
+    /**
+     * Limits the places in this request's response body to the projection.
+     */
+    static void select(WebRequest request, PlaceProjection projection) {
+        if (!projection.isAll()) {
+            request.setAttribute(PROJECTION_ATTRIBUTE, projection, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(PROJECTION_ATTRIBUTE) instanceof PlaceProjection projection) {
+            bodyContainer.setFilters(filters.computeIfAbsent(projection, selected -> new SimpleFilterProvider()
+                    .addFilter(PlaceFieldsConfig.PLACE_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selected.fieldNames()))));
+        }
+    }
+}
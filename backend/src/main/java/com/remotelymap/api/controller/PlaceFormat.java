@@ -0,0 +1,66 @@
+package com.remotelymap.api.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The formats places are written in, and which one a request gets. The choice is made the way Spring
+ * makes it: accepted types are taken by quality and then specificity, and JSON, registered first,
+ * answers wildcards. CBOR and Smile are only chosen when asked for by name.
+ */
+public enum PlaceFormat {
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.parseMediaType("application/cbor"), "-cbor"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "-smile");
+
+    private final MediaType mediaType;
+    private final String tagSuffix;
+
+    PlaceFormat(MediaType mediaType, String tagSuffix) {
+        this.mediaType = mediaType;
+        this.tagSuffix = tagSuffix;
+    }
+
+    /**
+     * Appended to strong entity tags, which promise byte-identical bodies. JSON tags have none, so tags
+     * handed out before formats were told apart still match.
+     */
+    public String tagSuffix() {
+        return tagSuffix;
+    }
+
+    /**
+     * @param accept the Accept header, or null if there was none
+     * @return the format the response will be written in, or empty if none is acceptable
+     */
+    public static Optional<PlaceFormat> negotiate(String accept) {
+        if (accept == null) {
+            return Optional.of(JSON);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return Optional.empty();
+        }
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (PlaceFormat format : values()) {
+                boolean named = type.isConcrete() && type.isCompatibleWith(format.mediaType);
+                if (named || (format == JSON && type.isCompatibleWith(MediaType.APPLICATION_JSON))) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,117 @@
+package com.remotelymap.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remotelymap.api.config.CacheConfig;
+import com.remotelymap.api.config.PlacesProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes places and pages as JSON serialized by an earlier request, which skips mapping to
+ * {@code PlaceResponse} and Jackson altogether. Bodies are kept under the place id or the page's number
+ * and size, along with the ETag they were written for, and only reused while that is still the current
+ * tag: a stale body is never written, even before {@code PlaceService}'s evictions land or when a racing
+ * request stored an older version. Pages are gzipped once up front when Tomcat would compress them;
+ * places have strong tags, which Tomcat never compresses.
+ */
+@Component
+public class PlaceResponseCache {
+    private final Cache bodies;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    // Size from which bodies are gzipped, or -1 when responses aren't compressed
+    private final long compressFrom;
+
+    public PlaceResponseCache(CacheManager cacheManager, ObjectMapper objectMapper, PlacesProperties properties,
+                              ServerProperties serverProperties) {
+        this.bodies = cacheManager.getCache(CacheConfig.PLACE_RESPONSES_CACHE);
+        this.objectMapper = objectMapper;
+        this.enabled = bodies != null && properties.getCache().getResponseMaximumWeight() > 0;
+        this.compressFrom = serverProperties.getCompression().getEnabled()
+                ? serverProperties.getCompression().getMinResponseSize().toBytes() : -1;
+    }
+
+    public static Object pageKey(int page, int size) {
+        return new PageKey(page, size);
+    }
+
+    /**
+     * Whether the response to this request would be JSON, the only format kept.
+     */
+    public boolean serves(ServletWebRequest webRequest) {
+        return enabled && PlaceFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT)).orElse(null) == PlaceFormat.JSON;
+    }
+
+    /**
+     * Writes the response with the body kept under the key for the ETag in the headers, serializing and
+     * keeping it first if there is none. The handler returns null afterwards, as the response is complete.
+     */
+    public void write(Object key, HttpHeaders headers, Supplier<?> body, ServletWebRequest webRequest) throws IOException {
+        String eTag = headers.getETag();
+        CachedBody cached = bodies.get(key, CachedBody.class);
+        if (cached == null || !cached.eTag().equals(eTag)) {
+            cached = serialize(eTag, body.get());
+            bodies.put(key, cached);
+        }
+
+        HttpServletResponse response = webRequest.getResponse();
+        headers.forEach((name, values) -> {
+            response.setHeader(name, values.get(0));
+            values.subList(1, values.size()).forEach(value -> response.addHeader(name, value));
+        });
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        byte[] bytes = cached.json();
+        if (cached.gzipped() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(webRequest.getRequest())) {
+                // Tomcat leaves responses that already have an encoding alone
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                bytes = cached.gzipped();
+            }
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    private CachedBody serialize(String eTag, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        boolean weak = eTag != null && eTag.startsWith("W/");
+        if (!weak || compressFrom < 0 || json.length < compressFrom) {
+            return new CachedBody(eTag, json, null);
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        return new CachedBody(eTag, json, gzipped.toByteArray());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record PageKey(int page, int size) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.remotelymap.api.controller;
+
+import com.remotelymap.api.dto.ImportResult;
+import com.remotelymap.api.dto.TransferFormat;
+import com.remotelymap.api.service.PlaceExportService;
+import com.remotelymap.api.service.PlaceImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/places")
+@RequiredArgsConstructor
+@Tag(name = "Places", description = "Places management APIs")
+public class PlaceTransferController {
+    private final PlaceImportService placeImportService;
+    private final PlaceExportService placeExportService;
+
+    @Operation(
+        summary = "Import places in bulk",
+        description = "Streams newline-delimited JSON or CSV (with a header row) into the places table. "
+                + "Records failing validation are skipped and reported; everything else is imported in one transaction"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Import finished",
+            content = @Content(schema = @Schema(implementation = ImportResult.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Body could not be parsed"
+        )
+    })
+    @PostMapping(value = "/import", consumes = {TransferFormat.NDJSON_VALUE, TransferFormat.CSV_VALUE})
+    public ResponseEntity<ImportResult> importPlaces(
+            @Parameter(description = "application/x-ndjson or text/csv")
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        TransferFormat format = TransferFormat.fromMediaType(contentType);
+        return ResponseEntity.ok(placeImportService.importPlaces(body, format));
+    }
+
+    @Operation(
+        summary = "Export all places",
+        description = "Streams every place as newline-delimited JSON or CSV. The table is read through a "
+                + "server-side cursor and written as it is read, so exports of any size run in constant memory"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Export stream"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown format"
+        )
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPlaces(
+            @Parameter(description = "ndjson (default) or csv")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        TransferFormat transferFormat = parseFormat(format);
+        StreamingResponseBody body = out -> placeExportService.exportPlaces(out, transferFormat);
+        return ResponseEntity.ok()
+                .contentType(transferFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("places." + transferFormat.name().toLowerCase(Locale.ROOT))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private TransferFormat parseFormat(String format) {
+        try {
+            return TransferFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        }
+    }
+}
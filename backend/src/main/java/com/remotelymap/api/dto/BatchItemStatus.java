@@ -0,0 +1,8 @@
+package com.remotelymap.api.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND
+}
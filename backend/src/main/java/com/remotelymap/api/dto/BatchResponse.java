@@ -0,0 +1,23 @@
+package com.remotelymap.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+    private List<BatchItemResult> results;
+    private int succeeded;
+    private int failed;
+
+    public static BatchResponse of(List<BatchItemResult> results) {
+        int failed = (int) results.stream()
+                .filter(result -> result.getStatus() == BatchItemStatus.NOT_FOUND)
+                .count();
+        return new BatchResponse(results, results.size() - failed, failed);
+    }
+}
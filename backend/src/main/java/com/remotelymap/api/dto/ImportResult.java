@@ -0,0 +1,28 @@
+package com.remotelymap.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    private long imported;
+    private long rejected;
+    /** The first rejected rows, up to places.import.max-reported-rejections. */
+    private List<RejectedRow> rejections;
+    private long durationMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedRow {
+        /** 1-based position of the record in the uploaded body, header excluded. */
+        private long row;
+        private Map<String, String> errors;
+    }
+}
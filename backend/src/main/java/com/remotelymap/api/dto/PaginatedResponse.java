@@ -9,10 +9,14 @@ import java.util.List;
 @AllArgsConstructor
 public class PaginatedResponse<T> {
     private List<T> content;
-    private int page;
+    // Null on cursor pages, and the totals too unless includeTotal was given
+    private Integer page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private TotalKind totalKind;
+    private Integer totalPages;
     private boolean hasNext;
+    // Always true on cursor pages
     private boolean hasPrevious;
+    private String nextCursor;
 } 
\ No newline at end of file
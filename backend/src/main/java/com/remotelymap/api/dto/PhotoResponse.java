@@ -0,0 +1,15 @@
+package com.remotelymap.api.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class PhotoResponse {
+    private UUID id;
+    /** The original as uploaded. */
+    private String url;
+    /** Resized copies keyed by variant, e.g. {@code w200}; only variants that are ready are listed. */
+    private Map<String, String> thumbnails;
+}
@@ -0,0 +1,14 @@
+package com.remotelymap.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.UUID;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class PlaceBatchUpdateItem extends PlaceRequest {
+    @NotNull(message = "Id is required")
+    private UUID id;
+}
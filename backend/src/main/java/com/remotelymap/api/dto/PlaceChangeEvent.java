@@ -0,0 +1,22 @@
+package com.remotelymap.api.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One change to a place, as announced on the change feed. It names the place and its new version only;
+ * clients fetch the place itself when they show it.
+ */
+@Data
+public class PlaceChangeEvent {
+    /**
+     * created, updated or deleted; also the SSE event name. The triggers send resync, without an id,
+     * for a statement that changed too many places to name each.
+     */
+    private String type;
+    private UUID id;
+    /** Version of the place after the change, matching its updatedAt and ETag. Absent for deletions. */
+    private OffsetDateTime updatedAt;
+}
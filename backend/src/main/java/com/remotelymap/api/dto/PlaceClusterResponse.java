@@ -0,0 +1,16 @@
+package com.remotelymap.api.dto;
+
+import lombok.Data;
+
+@Data
+public class PlaceClusterResponse {
+    private long count;
+    /** Centroid of the clustered places, where the cluster's marker goes. */
+    private double latitude;
+    private double longitude;
+    /** Box spanned by the clustered places; zooming the map to it splits the cluster up. */
+    private double minLatitude;
+    private double minLongitude;
+    private double maxLatitude;
+    private double maxLongitude;
+}
@@ -0,0 +1,16 @@
+package com.remotelymap.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class PlaceLookupResponse {
+    /** The places found, in the order their ids were asked for. */
+    private List<PlaceResponse> places;
+    /** Ids asked for that don't exist, in request order. */
+    private List<UUID> missing;
+}
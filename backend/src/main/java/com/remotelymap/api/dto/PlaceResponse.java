@@ -13,7 +13,9 @@ public class PlaceResponse {
     private String description;
     private String address;
     private Double rating;
-    private List<String> photos;
+    private Double latitude;
+    private Double longitude;
+    private List<PhotoResponse> photos;
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
 } 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.remotelymap.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Places created or updated since the token a client sent, and ids of places deleted since. A place
+ * may be sent again although it didn't change; applying it twice does no harm.
+ */
+@Data
+@AllArgsConstructor
+public class SyncResponse {
+    private List<PlaceResponse> changed;
+    private List<UUID> deleted;
+    /** Pass as 'since' for the next page, or, once hasMore is false, keep it for the next sync. */
+    private String nextToken;
+    private boolean hasMore;
+}
@@ -0,0 +1,22 @@
+package com.remotelymap.api.dto;
+
+import java.util.Locale;
+
+/**
+ * How the totalElements of a {@link PaginatedResponse} was obtained.
+ */
+public enum TotalKind {
+    /** A COUNT(*) over the table at request time. */
+    EXACT,
+    /** The planner's row estimate from pg_class.reltuples. */
+    ESTIMATED,
+    /** An in-process counter, resynchronised with an exact count periodically. */
+    CACHED;
+
+    /**
+     * @throws IllegalArgumentException if the value doesn't name a kind
+     */
+    public static TotalKind fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,36 @@
+package com.remotelymap.api.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Line-oriented formats used to move places in and out in bulk.
+ */
+public enum TransferFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    public static final String NDJSON_VALUE = MediaType.APPLICATION_NDJSON_VALUE;
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    TransferFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the media type isn't one of the supported formats
+     */
+    public static TransferFormat fromMediaType(MediaType mediaType) {
+        for (TransferFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + mediaType);
+    }
+}
@@ -0,0 +1,18 @@
+package com.remotelymap.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The places in a map viewport, or clusters of them when there are too many to show one by one.
+ */
+@Data
+@AllArgsConstructor
+public class ViewportResponse {
+    private int zoom;
+    private boolean clustered;
+    private List<PlaceResponse> places;
+    private List<PlaceClusterResponse> clusters;
+}
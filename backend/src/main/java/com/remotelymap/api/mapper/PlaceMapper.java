@@ -1,12 +1,20 @@
 package com.remotelymap.api.mapper;
 
+import com.remotelymap.api.dto.PhotoResponse;
+import com.remotelymap.api.dto.PlaceClusterResponse;
+import com.remotelymap.api.dto.PlaceBatchUpdateItem;
 import com.remotelymap.api.dto.PlaceRequest;
 import com.remotelymap.api.dto.PlaceResponse;
 import com.remotelymap.api.model.Place;
+import com.remotelymap.api.model.PlacePhoto;
+import com.remotelymap.api.repository.PlaceCluster;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Mapper(componentModel = "spring")
 public interface PlaceMapper {
     @Mapping(target = "id", ignore = true)
@@ -15,8 +23,30 @@ public interface PlaceMapper {
     @Mapping(target = "photos", ignore = true)
     Place toEntity(PlaceRequest request);
 
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "photos", ignore = true)
+    Place toEntity(PlaceBatchUpdateItem item);
+
     PlaceResponse toResponse(Place place);
 
+    PlaceClusterResponse toResponse(PlaceCluster cluster);
+
+    @Mapping(target = "url", source = "photoUrl")
+    @Mapping(target = "thumbnails", expression = "java(thumbnails(photo))")
+    PhotoResponse toResponse(PlacePhoto photo);
+
+    /**
+     * Derivatives are served next to the original, one path segment per variant.
+     */
+    default Map<String, String> thumbnails(PlacePhoto photo) {
+        Map<String, String> thumbnails = new LinkedHashMap<>();
+        if (photo.getVariants() != null) {
+            photo.getVariants().forEach(variant -> thumbnails.put(variant, photo.getPhotoUrl() + "/" + variant));
+        }
+        return thumbnails;
+    }
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
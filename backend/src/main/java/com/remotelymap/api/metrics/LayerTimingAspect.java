@@ -0,0 +1,67 @@
+package com.remotelymap.api.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Times every public method of the repositories ({@code places.repository}) and services
+ * ({@code places.service}), tagged by class and method. Runs outermost so a service timing includes
+ * its transaction and cache lookups. Repository calls that return a collection also record how many
+ * rows came back in {@code places.repository.rows}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LayerTimingAspect {
+    static final String REPOSITORY_TIMER = "places.repository";
+    static final String REPOSITORY_ROWS = "places.repository.rows";
+    static final String SERVICE_TIMER = "places.service";
+
+    private final MeterRegistry registry;
+
+    @Around("within(com.remotelymap.api.repository..*) && @within(org.springframework.stereotype.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = time(REPOSITORY_TIMER, joinPoint);
+        if (result instanceof Collection<?> rows) {
+            DistributionSummary.builder(REPOSITORY_ROWS)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .register(registry)
+                    .record(rows.size());
+        }
+        return result;
+    }
+
+    @Around("within(com.remotelymap.api.service..*) && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
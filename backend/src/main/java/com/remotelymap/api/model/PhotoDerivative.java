@@ -0,0 +1,19 @@
+package com.remotelymap.api.model;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+public class PhotoDerivative {
+    private UUID photoId;
+    /** Name of the size this derivative was rendered for, e.g. {@code w200}. */
+    private String variant;
+    private int width;
+    private int height;
+    private String contentType;
+    private long sizeBytes;
+    private String checksum;
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.remotelymap.api.model;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class PhotoDerivativeJob {
+    private UUID photoId;
+    private UUID placeId;
+    /** Number of times the job has been claimed, including the current claim. */
+    private int attempts;
+}
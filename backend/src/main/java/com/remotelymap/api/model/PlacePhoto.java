@@ -0,0 +1,21 @@
+package com.remotelymap.api.model;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class PlacePhoto {
+    private UUID id;
+    private UUID placeId;
+    private String photoUrl;
+    private String contentType;
+    private Long sizeBytes;
+    /** Hex SHA-256 of the stored bytes; null for photos that were never stored. */
+    private String checksum;
+    private OffsetDateTime createdAt;
+    /** Derivative variants rendered so far, e.g. {@code w200}; empty until the thumbnail job has run. */
+    private List<String> variants = List.of();
+}
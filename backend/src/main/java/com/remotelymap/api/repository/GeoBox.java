@@ -0,0 +1,57 @@
+package com.remotelymap.api.repository;
+
+/**
+ * A rectangle of a map in degrees. When minLongitude is greater than maxLongitude, the box crosses the
+ * antimeridian and spans from minLongitude east to 180 and on from -180 to maxLongitude.
+ */
+public record GeoBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+    /** Web Mercator cuts the poles off here, making the world square. */
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    public boolean crossesAntimeridian() {
+        return minLongitude > maxLongitude;
+    }
+
+    /**
+     * Number of cells the world is divided into along each axis to cluster this box at a zoom level:
+     * cellsPerTile per map tile, halved until the box spans at most maxCellsPerAxis cells either way,
+     * which bounds the number of clusters whatever box a client sends. Always a power of two, so the
+     * cells don't move while a map is panned.
+     */
+    public long gridSize(int zoom, int cellsPerTile, int maxCellsPerAxis) {
+        long size = (1L << zoom) * cellsPerTile;
+        while (size > 1 && (widthFraction() * size > maxCellsPerAxis || heightFraction() * size > maxCellsPerAxis)) {
+            size >>= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Part of the world's width this box covers.
+     */
+    double widthFraction() {
+        double degrees = crossesAntimeridian() ? maxLongitude + 360 - minLongitude : maxLongitude - minLongitude;
+        return degrees / 360;
+    }
+
+    /**
+     * Part of the world's height this box covers on a Web Mercator map.
+     */
+    double heightFraction() {
+        return mercatorY(minLatitude) - mercatorY(maxLatitude);
+    }
+
+    /**
+     * Distance of a latitude from the top of a Web Mercator map, from 0 to 1. The clustering query
+     * computes the same in SQL.
+     */
+    static double mercatorY(double latitude) {
+        double clamped = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        return (1 - asinh(Math.tan(Math.toRadians(clamped))) / Math.PI) / 2;
+    }
+
+    private static double asinh(double x) {
+        return Math.log(x + Math.sqrt(x * x + 1));
+    }
+}
@@ -0,0 +1,136 @@
+package com.remotelymap.api.repository;
+
+import com.remotelymap.api.model.PhotoDerivative;
+import com.remotelymap.api.model.PhotoDerivativeJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcPhotoDerivativeRepository implements PhotoDerivativeRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<PhotoDerivativeJob> jobRowMapper = (rs, rowNum) -> {
+        PhotoDerivativeJob job = new PhotoDerivativeJob();
+        job.setPhotoId(rs.getObject("photo_id", UUID.class));
+        job.setPlaceId(rs.getObject("place_id", UUID.class));
+        job.setAttempts(rs.getInt("attempts"));
+        return job;
+    };
+
+    private final RowMapper<PhotoDerivative> derivativeRowMapper = (rs, rowNum) -> {
+        PhotoDerivative derivative = new PhotoDerivative();
+        derivative.setPhotoId(rs.getObject("photo_id", UUID.class));
+        derivative.setVariant(rs.getString("variant"));
+        derivative.setWidth(rs.getInt("width"));
+        derivative.setHeight(rs.getInt("height"));
+        derivative.setContentType(rs.getString("content_type"));
+        derivative.setSizeBytes(rs.getLong("size_bytes"));
+        derivative.setChecksum(rs.getString("checksum"));
+        derivative.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        return derivative;
+    };
+
+    @Override
+    public void enqueue(UUID photoId, UUID placeId) {
+        jdbcTemplate.update("INSERT INTO photo_derivative_jobs (photo_id, place_id) VALUES (?, ?)", photoId, placeId);
+    }
+
+    /**
+     * Claims up to {@code limit} due jobs in one statement. Rows another instance is claiming at the
+     * same moment are skipped rather than waited for, and a claim only holds until the lease runs out.
+     * Jobs whose last allowed claim ran out without a report from the worker are failed instead:
+     * whatever happened to the worker, most likely running out of memory, would happen again.
+     */
+    @Override
+    public List<PhotoDerivativeJob> claimDue(int limit, Duration lease, int maxAttempts) {
+        jdbcTemplate.update("""
+            UPDATE photo_derivative_jobs
+            SET status = 'FAILED', last_error = 'Lease ran out on the last attempt'
+            WHERE status = 'RUNNING' AND attempts >= ? AND next_attempt_at <= CURRENT_TIMESTAMP
+            """, maxAttempts);
+        String sql = """
+            UPDATE photo_derivative_jobs j
+            SET status = 'RUNNING',
+                attempts = j.attempts + 1,
+                next_attempt_at = CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond'
+            WHERE j.photo_id IN (
+                SELECT photo_id FROM photo_derivative_jobs
+                WHERE status IN ('PENDING', 'RUNNING') AND next_attempt_at <= CURRENT_TIMESTAMP AND attempts < ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING j.photo_id, j.place_id, j.attempts
+            """;
+        return jdbcTemplate.query(sql, jobRowMapper, lease.toMillis(), maxAttempts, limit);
+    }
+
+    /**
+     * Removes the job. Like the other transitions below, it is a no-op once the job has been claimed
+     * again, so a worker whose lease ran out can't overwrite the newer claim.
+     */
+    @Override
+    public void complete(PhotoDerivativeJob job) {
+        jdbcTemplate.update("DELETE FROM photo_derivative_jobs WHERE photo_id = ? AND attempts = ?",
+            job.getPhotoId(), job.getAttempts());
+    }
+
+    @Override
+    public void retryLater(PhotoDerivativeJob job, Duration delay, String error) {
+        String sql = """
+            UPDATE photo_derivative_jobs
+            SET status = 'PENDING', next_attempt_at = CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond', last_error = ?
+            WHERE photo_id = ? AND attempts = ?
+            """;
+        jdbcTemplate.update(sql, delay.toMillis(), error, job.getPhotoId(), job.getAttempts());
+    }
+
+    @Override
+    public void fail(PhotoDerivativeJob job, String error) {
+        jdbcTemplate.update("UPDATE photo_derivative_jobs SET status = 'FAILED', last_error = ? WHERE photo_id = ? AND attempts = ?",
+            error, job.getPhotoId(), job.getAttempts());
+    }
+
+    @Override
+    public void saveDerivative(PhotoDerivative derivative) {
+        String sql = """
+            INSERT INTO photo_derivatives (photo_id, variant, width, height, content_type, size_bytes, checksum)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (photo_id, variant) DO UPDATE
+            SET width = EXCLUDED.width,
+                height = EXCLUDED.height,
+                content_type = EXCLUDED.content_type,
+                size_bytes = EXCLUDED.size_bytes,
+                checksum = EXCLUDED.checksum,
+                created_at = CURRENT_TIMESTAMP
+            """;
+        jdbcTemplate.update(sql,
+            derivative.getPhotoId(),
+            derivative.getVariant(),
+            derivative.getWidth(),
+            derivative.getHeight(),
+            derivative.getContentType(),
+            derivative.getSizeBytes(),
+            derivative.getChecksum()
+        );
+    }
+
+    @Override
+    public Optional<PhotoDerivative> findDerivative(UUID placeId, UUID photoId, String variant) {
+        String sql = """
+            SELECT d.* FROM photo_derivatives d
+            JOIN place_photos p ON p.id = d.photo_id
+            WHERE d.photo_id = ? AND p.place_id = ? AND d.variant = ?
+            """;
+        return jdbcTemplate.query(sql, derivativeRowMapper, photoId, placeId, variant).stream().findFirst();
+    }
+}
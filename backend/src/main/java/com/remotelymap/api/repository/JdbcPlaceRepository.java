@@ -1,84 +1,446 @@
 package com.remotelymap.api.repository;
 
 import com.remotelymap.api.model.Place;
+import com.remotelymap.api.model.PlacePhoto;
 import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class JdbcPlaceRepository implements PlaceRepository {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Shortest word of a search that is matched as a prefix. Shorter words have to match a whole word,
+     * as a one or two letter prefix matches most of the table, and every match gets ranked.
+     */
+    public static final int MIN_PREFIX_LENGTH = 3;
+    private static final String SEARCH_WORD_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    // Every column PlaceRowMapper reads. Listed instead of * so that columns which only exist
+    // for indexing, like search_vector, are never shipped to the application.
+    private static final String PLACE_COLUMNS = "id, name, description, address, rating, latitude, longitude, created_at, updated_at";
+    /**
+     * New value of updated_at on every change. It is the version clients see in ETags, so it must move
+     * forward on each write: CURRENT_TIMESTAMP is frozen at transaction start and can repeat or go back.
+     */
+    private static final String NEXT_VERSION = "greatest(clock_timestamp(), updated_at + INTERVAL '1 microsecond')";
+
     private final JdbcTemplate jdbcTemplate;
-    
-    private final RowMapper<Place> placeRowMapper = (rs, rowNum) -> {
-        Place place = new Place();
-        place.setId(UUID.fromString(rs.getString("id")));
-        place.setName(rs.getString("name"));
-        place.setDescription(rs.getString("description"));
-        place.setAddress(rs.getString("address"));
-        place.setRating(rs.getDouble("rating"));
-        place.setCreatedAt(rs.getTimestamp("created_at").toInstant().atOffset(OffsetDateTime.now().getOffset()));
-        place.setUpdatedAt(rs.getTimestamp("updated_at").toInstant().atOffset(OffsetDateTime.now().getOffset()));
-        return place;
+
+    private final RowMapper<Place> placeRowMapper = new PlaceRowMapper();
+
+    private final RowMapper<PlacePhoto> photoRowMapper = (rs, rowNum) -> {
+        PlacePhoto photo = new PlacePhoto();
+        photo.setId(rs.getObject("id", UUID.class));
+        photo.setPlaceId(rs.getObject("place_id", UUID.class));
+        photo.setPhotoUrl(rs.getString("photo_url"));
+        photo.setContentType(rs.getString("content_type"));
+        photo.setSizeBytes(rs.getObject("size_bytes", Long.class));
+        photo.setChecksum(rs.getString("checksum"));
+        photo.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        return photo;
+    };
+
+    private final RowMapper<PlacePhoto> photoWithVariantsRowMapper = (rs, rowNum) -> {
+        PlacePhoto photo = photoRowMapper.mapRow(rs, rowNum);
+        photo.setVariants(List.of((String[]) rs.getArray("variants").getArray()));
+        return photo;
     };
 
     @Override
     public Place save(Place place) {
         String sql = """
-        INSERT INTO places (name, description, address, rating, created_at, updated_at)
-        VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-        RETURNING id
-        """;
-
-        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
-
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, place.getName());
-            ps.setString(2, place.getDescription());
-            ps.setString(3, place.getAddress());
-            ps.setDouble(4, place.getRating());
-            return ps;
-        }, keyHolder);
+            INSERT INTO places (name, description, address, rating, latitude, longitude, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            RETURNING %s
+            """.formatted(PLACE_COLUMNS);
+        Place saved = jdbcTemplate.queryForObject(sql, placeRowMapper,
+            place.getName(),
+            place.getDescription(),
+            place.getAddress(),
+            place.getRating(),
+            place.getLatitude(),
+            place.getLongitude()
+        );
+        // A new place has no photos yet, the same as reading it back would say
+        saved.setPhotos(new ArrayList<>());
+        return saved;
+    }
+
+    @Override
+    public List<Place> saveAll(List<Place> places) {
+        // One statement per call whatever the number of rows: each column travels as an array
+        // and unnest turns them back into rows. Ids are assigned here so that the returned rows
+        // can be matched back to the input order.
+        String sql = """
+            INSERT INTO places (id, name, description, address, rating, latitude, longitude, created_at, updated_at)
+            SELECT v.*, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::float8[], ?::float8[], ?::float8[])
+                AS v(id, name, description, address, rating, latitude, longitude)
+            RETURNING %s
+            """.formatted(PLACE_COLUMNS);
 
-        // Get the UUID from the key holder
-        UUID id = keyHolder.getKeyAs(UUID.class);
+        places.forEach(place -> place.setId(UUID.randomUUID()));
+        List<Place> saved = jdbcTemplate.query(con -> columnArrays(con, sql, places), placeRowMapper);
+        saved.forEach(place -> place.setPhotos(new ArrayList<>()));
+        return inInputOrder(places, saved);
+    }
 
-        // Fetch the complete saved entity
-        String selectSql = "SELECT * FROM places WHERE id = ?";
-        return jdbcTemplate.queryForObject(selectSql, placeRowMapper, id);
+    /**
+     * Streams the places into the table with COPY FROM STDIN, which skips per-row statement
+     * parsing and round trips entirely. The iterator is drained lazily, so the caller decides
+     * how much of the input is ever held in memory.
+     */
+    @Override
+    public long copyIn(Iterator<Place> places) {
+        String sql = "COPY places (name, description, address, rating, latitude, longitude) FROM STDIN WITH (FORMAT csv)";
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            PGCopyOutputStream copy = new PGCopyOutputStream(con.unwrap(PGConnection.class), sql, COPY_BUFFER_SIZE);
+            try {
+                Writer writer = new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+                StringBuilder line = new StringBuilder(256);
+                while (places.hasNext()) {
+                    Place place = places.next();
+                    line.setLength(0);
+                    appendCsv(line, place.getName()).append(',');
+                    appendCsv(line, place.getDescription()).append(',');
+                    appendCsv(line, place.getAddress()).append(',');
+                    appendCsv(line, place.getRating()).append(',');
+                    appendCsv(line, place.getLatitude()).append(',');
+                    appendCsv(line, place.getLongitude()).append('\n');
+                    writer.append(line);
+                }
+                writer.flush();
+                return copy.endCopy();
+            } catch (IOException | RuntimeException e) {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+                if (e instanceof IOException io) {
+                    throw new SQLException("COPY into places failed", io);
+                }
+                throw (RuntimeException) e;
+            }
+        });
+    }
+
+    /**
+     * COPY's csv format reads an unquoted empty field as NULL, so only non-null text gets quoted.
+     */
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static StringBuilder appendCsv(StringBuilder line, Double value) {
+        return value == null ? line : line.append(value.doubleValue());
     }
 
     @Override
     public Optional<Place> findById(UUID id) {
-        String sql = "SELECT * FROM places WHERE id = ?";
+        String sql = "SELECT " + PLACE_COLUMNS + " FROM places WHERE id = ?";
         try {
             Place place = jdbcTemplate.queryForObject(sql, placeRowMapper, id);
-            return Optional.ofNullable(place);
+            return Optional.ofNullable(place).map(found -> withPhotos(List.of(found)).get(0));
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
     @Override
-    public List<Place> findAll(int page, int size) {
-        String sql = "SELECT * FROM places ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, placeRowMapper, size, page * size);
+    public List<Place> findAllByIds(Collection<UUID> ids) {
+        String sql = "SELECT " + PLACE_COLUMNS + " FROM places WHERE id = ANY(?)";
+        return withPhotos(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, placeRowMapper));
+    }
+
+    @Override
+    public Optional<OffsetDateTime> findUpdatedAt(UUID id) {
+        return jdbcTemplate.query("SELECT updated_at FROM places WHERE id = ?",
+                (rs, rowNum) -> rs.getObject(1, OffsetDateTime.class), id).stream().findFirst();
+    }
+
+    @Override
+    public Map<UUID, OffsetDateTime> findUpdatedAtByIds(Collection<UUID> ids) {
+        Map<UUID, OffsetDateTime> versions = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, updated_at FROM places WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, rs -> {
+            versions.put(rs.getObject("id", UUID.class), rs.getObject("updated_at", OffsetDateTime.class));
+        });
+        return versions;
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM places WHERE id = ?)", Boolean.class, id));
+    }
+
+    @Override
+    public List<Place> findAll(int page, int size, PlaceProjection projection) {
+        String sql = "SELECT " + projection.columns() + " FROM places ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+        return withPhotos(jdbcTemplate.query(sql, rowMapper(projection), size, page * size), projection);
+    }
+
+    @Override
+    public List<Place> findAllAfter(PlaceCursor after, int limit, PlaceProjection projection) {
+        if (after == null) {
+            String sql = "SELECT " + projection.columns() + " FROM places ORDER BY created_at DESC, id DESC LIMIT ?";
+            return withPhotos(jdbcTemplate.query(sql, rowMapper(projection), limit), projection);
+        }
+        String sql = """
+            SELECT %s FROM places
+            WHERE (created_at, id) < (?, ?)
+            ORDER BY created_at DESC, id DESC
+            LIMIT ?
+            """.formatted(projection.columns());
+        return withPhotos(jdbcTemplate.query(sql, rowMapper(projection), after.createdAt(), after.id(), limit), projection);
+    }
+
+    /**
+     * Hands every place to the consumer as it is read. With a fetch size inside a transaction the
+     * driver pulls rows through a server-side cursor, fetchSize at a time, instead of buffering
+     * the whole result. Rows come in physical order so the table is read with a sequential scan.
+     */
+    @Override
+    public void streamAll(int fetchSize, Consumer<Place> consumer) {
+        String sql = "SELECT " + PLACE_COLUMNS + " FROM places";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(placeRowMapper.mapRow(rs, rs.getRow())));
+    }
+
+    @Override
+    public List<Place> findNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        // earth_box is a cheap index-backed prefilter; earth_distance then trims the box corners,
+        // and <-> lets the GiST index hand rows back nearest-first so LIMIT stops the scan early
+        String sql = """
+            SELECT %s FROM places
+            WHERE earth_box(ll_to_earth(?, ?), ?) @> ll_to_earth(latitude, longitude)
+              AND earth_distance(ll_to_earth(?, ?), ll_to_earth(latitude, longitude)) <= ?
+            ORDER BY ll_to_earth(latitude, longitude) <-> ll_to_earth(?, ?)
+            LIMIT ?
+            """.formatted(PLACE_COLUMNS);
+        return withPhotos(jdbcTemplate.query(sql, placeRowMapper,
+            latitude, longitude, radiusMeters,
+            latitude, longitude, radiusMeters,
+            latitude, longitude,
+            limit));
+    }
+
+    @Override
+    public List<Place> findInBox(GeoBox box, int limit) {
+        String sql = "SELECT %s FROM places WHERE %s LIMIT ?".formatted(PLACE_COLUMNS, inBox(box));
+        List<Object> args = boxArguments(box);
+        args.add(limit);
+        return withPhotos(jdbcTemplate.query(sql, placeRowMapper, args.toArray()));
+    }
+
+    /**
+     * Cells are counted from the top left of the map, so none straddles the antimeridian and the
+     * plain average of a cell's longitudes is its centroid.
+     */
+    @Override
+    public List<PlaceCluster> clusterInBox(GeoBox box, long gridSize) {
+        String sql = """
+            SELECT count(*) AS places,
+                   avg(latitude) AS latitude, avg(longitude) AS longitude,
+                   min(latitude) AS min_latitude, min(longitude) AS min_longitude,
+                   max(latitude) AS max_latitude, max(longitude) AS max_longitude
+            FROM places
+            WHERE %s
+            GROUP BY floor((longitude + 180) / 360 * ?),
+                     floor((1 - asinh(tan(radians(least(greatest(latitude, -85.05112878), 85.05112878)))) / pi()) / 2 * ?)
+            """.formatted(inBox(box));
+        List<Object> args = boxArguments(box);
+        args.add(gridSize);
+        args.add(gridSize);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new PlaceCluster(
+            rs.getLong("places"),
+            rs.getDouble("latitude"), rs.getDouble("longitude"),
+            rs.getDouble("min_latitude"), rs.getDouble("min_longitude"),
+            rs.getDouble("max_latitude"), rs.getDouble("max_longitude")), args.toArray());
+    }
+
+    /**
+     * Matches idx_places_point. A box across the antimeridian is split in two at it.
+     */
+    private static String inBox(GeoBox box) {
+        String contained = "point(longitude, latitude) <@ box(point(?, ?), point(?, ?))";
+        return box.crossesAntimeridian() ? "(" + contained + " OR " + contained + ")" : contained;
+    }
+
+    private static List<Object> boxArguments(GeoBox box) {
+        List<Object> args = new ArrayList<>();
+        if (box.crossesAntimeridian()) {
+            args.addAll(List.of(box.minLongitude(), box.minLatitude(), 180.0, box.maxLatitude()));
+            args.addAll(List.of(-180.0, box.minLatitude(), box.maxLongitude(), box.maxLatitude()));
+        } else {
+            args.addAll(List.of(box.minLongitude(), box.minLatitude(), box.maxLongitude(), box.maxLatitude()));
+        }
+        return args;
+    }
+
+    /**
+     * Both sides of the union are read in index order and merged, so the cost follows the number of
+     * changes returned, not the size of the table.
+     */
+    @Override
+    public List<PlaceDelta> findChangesAfter(long afterXid, UUID afterId, int limit) {
+        String sql = """
+            WITH changes AS (
+                (SELECT id, change_xid, false AS deleted FROM places
+                 WHERE (change_xid, id) > (?, ?) ORDER BY change_xid, id LIMIT ?)
+                UNION ALL
+                (SELECT id, change_xid, true AS deleted FROM place_tombstones
+                 WHERE (change_xid, id) > (?, ?) ORDER BY change_xid, id LIMIT ?)
+                ORDER BY change_xid, id
+                LIMIT ?
+            )
+            SELECT c.id AS change_id, c.change_xid, c.deleted,
+                   p.id, p.name, p.description, p.address, p.rating, p.latitude, p.longitude,
+                   p.created_at, p.updated_at
+            FROM changes c
+            LEFT JOIN places p ON p.id = c.id AND NOT c.deleted
+            ORDER BY c.change_xid, c.id
+            """;
+        List<PlaceDelta> deltas = jdbcTemplate.query(sql, (rs, rowNum) -> new PlaceDelta(
+                rs.getLong("change_xid"),
+                rs.getObject("change_id", UUID.class),
+                rs.getBoolean("deleted") ? null : placeRowMapper.mapRow(rs, rowNum)),
+            afterXid, afterId, limit, afterXid, afterId, limit, limit);
+        // Fills in the photos of the places the deltas hold
+        withPhotos(deltas.stream().filter(delta -> !delta.isDeleted()).map(PlaceDelta::place).toList());
+        return deltas;
+    }
+
+    @Override
+    public long snapshotXmin() {
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    @Override
+    public long tombstonesPurgedThrough() {
+        return jdbcTemplate.queryForObject("SELECT purged_through FROM place_sync_horizon", Long.class);
+    }
+
+    @Override
+    public void purgeTombstones(OffsetDateTime deletedBefore) {
+        String sql = """
+            WITH purged AS (
+                DELETE FROM place_tombstones WHERE deleted_at < ? RETURNING change_xid
+            )
+            UPDATE place_sync_horizon
+            SET purged_through = greatest(purged_through, (SELECT max(change_xid) FROM purged))
+            """;
+        jdbcTemplate.update(sql, deletedBefore);
+    }
+
+    /**
+     * Every word of the query is matched as a prefix against the search vector, and trigram word
+     * similarity on name and address catches misspellings that text search can't. Both conditions
+     * are backed by GIN indexes, so the planner ORs two bitmap index scans and only ranks the matches.
+     */
+    @Override
+    public List<RankedPlace> search(String query, SearchCursor after, int limit, PlaceProjection projection) {
+        String sql = """
+            WITH q AS (SELECT to_tsquery('simple', ?) AS ts, ?::text AS raw)
+            SELECT * FROM (
+                SELECT %s,
+                       (ts_rank_cd(search_vector, q.ts)
+                           + greatest(word_similarity(q.raw, name), word_similarity(q.raw, address)))::float8 AS rank
+                FROM places, q
+                WHERE search_vector @@ q.ts OR q.raw <%% name OR q.raw <%% address
+            ) ranked
+            %s
+            ORDER BY rank DESC, id DESC
+            LIMIT ?
+            """.formatted(projection.columns(), after == null ? "" : "WHERE (rank, id) < (?, ?)");
+
+        List<Object> args = new ArrayList<>(List.of(prefixQuery(query), query));
+        if (after != null) {
+            args.add(after.rank());
+            args.add(after.id());
+        }
+        args.add(limit);
+
+        RowMapper<Place> mapper = rowMapper(projection);
+        List<RankedPlace> hits = jdbcTemplate.query(sql,
+            (rs, rowNum) -> new RankedPlace(mapper.mapRow(rs, rowNum), rs.getDouble("rank")),
+            args.toArray());
+        withPhotos(hits.stream().map(RankedPlace::place).toList(), projection);
+        return hits;
+    }
+
+    /**
+     * Whether a search would be selective enough to run: at least one of its words has to be
+     * {@link #MIN_PREFIX_LENGTH} letters or digits long.
+     */
+    public static boolean isSearchable(String query) {
+        return Arrays.stream(query.split(SEARCH_WORD_SEPARATOR)).anyMatch(word -> word.length() >= MIN_PREFIX_LENGTH);
+    }
+
+    /**
+     * Turns free text into a tsquery that requires every word, e.g. "cafe ams" becomes "cafe:* & ams:*".
+     * Words of {@link #MIN_PREFIX_LENGTH} or more are matched as prefixes, shorter ones whole. Anything
+     * but letters and digits separates words, so operators in the input can't change the meaning of the query.
+     */
+    private static String prefixQuery(String query) {
+        return Arrays.stream(query.split(SEARCH_WORD_SEPARATOR))
+            .filter(word -> !word.isEmpty())
+            .map(word -> word.length() >= MIN_PREFIX_LENGTH ? word + ":*" : word)
+            .collect(Collectors.joining(" & "));
     }
 
     @Override
-    public void deleteById(UUID id) {
+    public boolean deleteById(UUID id) {
         String sql = "DELETE FROM places WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+        return jdbcTemplate.update(sql, id) > 0;
     }
 
     @Override
@@ -88,25 +450,188 @@ public class JdbcPlaceRepository implements PlaceRepository {
     }
 
     @Override
-    public void update(Place place) {
+    public long estimateCount() {
+        // reltuples is -1 until the table has been vacuumed or analyzed for the first time
+        String sql = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'places'::regclass";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    @Override
+    public Optional<Place> update(Place place, OffsetDateTime expectedUpdatedAt) {
         String sql = """
-            UPDATE places 
-            SET name = ?, description = ?, address = ?, rating = ?, updated_at = CURRENT_TIMESTAMP
+            UPDATE places
+            SET name = ?, description = ?, address = ?, rating = ?, latitude = ?, longitude = ?,
+                updated_at = %s
             WHERE id = ?
-            """;
-        
-        jdbcTemplate.update(sql,
+            """.formatted(NEXT_VERSION);
+        String returning = " RETURNING " + PLACE_COLUMNS;
+        List<Object> args = new ArrayList<>(Arrays.asList(
             place.getName(),
             place.getDescription(),
             place.getAddress(),
             place.getRating(),
+            place.getLatitude(),
+            place.getLongitude(),
             place.getId()
-        );
+        ));
+        if (expectedUpdatedAt != null) {
+            sql += " AND updated_at = ?";
+            args.add(expectedUpdatedAt);
+        }
+        List<Place> updated = jdbcTemplate.query(sql + returning, placeRowMapper, args.toArray());
+        return updated.stream().findFirst().map(found -> withPhotos(List.of(found)).get(0));
+    }
+
+    @Override
+    public void touch(UUID id) {
+        jdbcTemplate.update("UPDATE places SET updated_at = " + NEXT_VERSION + " WHERE id = ?", id);
     }
 
     @Override
-    public void addPhoto(UUID placeId, String photoUrl) {
-        String sql = "INSERT INTO place_photos (place_id, photo_url) VALUES (?, ?)";
-        jdbcTemplate.update(sql, placeId, photoUrl);
+    public List<Place> updateAll(List<Place> places) {
+        String sql = """
+            UPDATE places AS p
+            SET name = v.name, description = v.description, address = v.address, rating = v.rating,
+                latitude = v.latitude, longitude = v.longitude,
+                updated_at = greatest(clock_timestamp(), p.updated_at + INTERVAL '1 microsecond')
+            FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::float8[], ?::float8[], ?::float8[])
+                AS v(id, name, description, address, rating, latitude, longitude)
+            WHERE p.id = v.id
+            RETURNING p.id, p.name, p.description, p.address, p.rating, p.latitude, p.longitude,
+                      p.created_at, p.updated_at
+            """;
+
+        List<Place> updated = jdbcTemplate.query(con -> columnArrays(con, sql, places), placeRowMapper);
+        return inInputOrder(places, updated);
+    }
+
+    @Override
+    public List<UUID> deleteAllByIds(Collection<UUID> ids) {
+        String sql = "DELETE FROM places WHERE id = ANY(?) RETURNING id";
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    private PreparedStatement columnArrays(Connection con, String sql, List<Place> places) throws SQLException {
+        int size = places.size();
+        UUID[] ids = new UUID[size];
+        String[] names = new String[size];
+        String[] descriptions = new String[size];
+        String[] addresses = new String[size];
+        Double[] ratings = new Double[size];
+        Double[] latitudes = new Double[size];
+        Double[] longitudes = new Double[size];
+        for (int i = 0; i < size; i++) {
+            Place place = places.get(i);
+            ids[i] = place.getId();
+            names[i] = place.getName();
+            descriptions[i] = place.getDescription();
+            addresses[i] = place.getAddress();
+            ratings[i] = place.getRating();
+            latitudes[i] = place.getLatitude();
+            longitudes[i] = place.getLongitude();
+        }
+
+        PreparedStatement ps = con.prepareStatement(sql);
+        ps.setArray(1, con.createArrayOf("uuid", ids));
+        ps.setArray(2, con.createArrayOf("text", names));
+        ps.setArray(3, con.createArrayOf("text", descriptions));
+        ps.setArray(4, con.createArrayOf("text", addresses));
+        ps.setArray(5, con.createArrayOf("float8", ratings));
+        ps.setArray(6, con.createArrayOf("float8", latitudes));
+        ps.setArray(7, con.createArrayOf("float8", longitudes));
+        return ps;
+    }
+
+    /**
+     * RETURNING doesn't promise any particular row order, so line the rows up with the
+     * input by id. Inputs that produced no row are left out.
+     */
+    private List<Place> inInputOrder(List<Place> input, List<Place> returned) {
+        Map<UUID, Place> byId = new HashMap<>();
+        returned.forEach(place -> byId.put(place.getId(), place));
+        List<Place> ordered = new ArrayList<>(returned.size());
+        for (Place place : input) {
+            Place match = byId.get(place.getId());
+            if (match != null) {
+                ordered.add(match);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Inserts the photo row and moves the place's updated_at forward in one statement. Nothing is
+     * inserted when the place doesn't exist.
+     */
+    @Override
+    public boolean addPhoto(PlacePhoto photo) {
+        String sql = """
+            WITH place AS (
+                UPDATE places SET updated_at = %s WHERE id = ? RETURNING id
+            )
+            INSERT INTO place_photos (id, place_id, photo_url, content_type, size_bytes, checksum)
+            SELECT ?, place.id, ?, ?, ?, ? FROM place
+            """.formatted(NEXT_VERSION);
+        return jdbcTemplate.update(sql,
+            photo.getPlaceId(),
+            photo.getId(),
+            photo.getPhotoUrl(),
+            photo.getContentType(),
+            photo.getSizeBytes(),
+            photo.getChecksum()
+        ) > 0;
+    }
+
+    @Override
+    public Optional<PlacePhoto> findPhoto(UUID placeId, UUID photoId) {
+        String sql = "SELECT * FROM place_photos WHERE id = ? AND place_id = ?";
+        return jdbcTemplate.query(sql, photoRowMapper, photoId, placeId).stream().findFirst();
+    }
+
+    private RowMapper<Place> rowMapper(PlaceProjection projection) {
+        return projection.isAll() ? placeRowMapper : new PlaceRowMapper(projection);
+    }
+
+    private List<Place> withPhotos(List<Place> places, PlaceProjection projection) {
+        return projection.includes(PlaceProjection.Field.PHOTOS) ? withPhotos(places) : places;
+    }
+
+    /**
+     * Fills in the photos of all given places with one query, however many places there are,
+     * instead of one query per place.
+     */
+    private List<Place> withPhotos(List<Place> places) {
+        if (places.isEmpty()) {
+            return places;
+        }
+        Map<UUID, List<PlacePhoto>> photosByPlace = new HashMap<>();
+        for (Place place : places) {
+            List<PlacePhoto> photos = new ArrayList<>();
+            place.setPhotos(photos);
+            photosByPlace.put(place.getId(), photos);
+        }
+
+        String sql = """
+            SELECT p.*,
+                   array_remove(array_agg(d.variant ORDER BY d.variant), NULL) AS variants
+            FROM place_photos p
+            LEFT JOIN photo_derivatives d ON d.photo_id = p.id
+            WHERE p.place_id = ANY(?)
+            GROUP BY p.id
+            ORDER BY p.created_at, p.id
+            """;
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", photosByPlace.keySet().toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            PlacePhoto photo = photoWithVariantsRowMapper.mapRow(rs, 0);
+            photosByPlace.get(photo.getPlaceId()).add(photo);
+        });
+        return places;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.remotelymap.api.repository;
+
+import com.remotelymap.api.model.PhotoDerivative;
+import com.remotelymap.api.model.PhotoDerivativeJob;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface PhotoDerivativeRepository {
+    void enqueue(UUID photoId, UUID placeId);
+    List<PhotoDerivativeJob> claimDue(int limit, Duration lease, int maxAttempts);
+    void complete(PhotoDerivativeJob job);
+    void retryLater(PhotoDerivativeJob job, Duration delay, String error);
+    void fail(PhotoDerivativeJob job, String error);
+    void saveDerivative(PhotoDerivative derivative);
+    Optional<PhotoDerivative> findDerivative(UUID placeId, UUID photoId, String variant);
+}
@@ -0,0 +1,8 @@
+package com.remotelymap.api.repository;
+
+/**
+ * Places that share a grid cell: how many there are, their centroid, and the box they span.
+ */
+public record PlaceCluster(long count, double latitude, double longitude,
+                           double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+}
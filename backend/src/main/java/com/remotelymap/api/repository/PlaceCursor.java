@@ -0,0 +1,47 @@
+package com.remotelymap.api.repository;
+
+import com.remotelymap.api.model.Place;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the {@code (created_at DESC, id DESC)} ordering of places.
+ * Clients only ever see the encoded form, so the layout can change without breaking them.
+ */
+public record PlaceCursor(OffsetDateTime createdAt, UUID id) {
+
+    public static PlaceCursor of(Place place) {
+        return new PlaceCursor(place.getCreatedAt(), place.getId());
+    }
+
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt.toInstant());
+        String raw = micros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static PlaceCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            long micros = Long.parseLong(raw.substring(0, separator));
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            Instant createdAt = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+            return new PlaceCursor(OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.remotelymap.api.repository;
+
+import com.remotelymap.api.model.Place;
+
+import java.util.UUID;
+
+/**
+ * A place as it is now, or the tombstone of a deleted one, with the transaction that last wrote it.
+ *
+ * @param place null when the place was deleted
+ */
+public record PlaceDelta(long changeXid, UUID id, Place place) {
+
+    public boolean isDeleted() {
+        return place == null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.remotelymap.api.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of a place that a caller asked for, named as in the API. Queries select only the columns
+ * behind them, plus id, created_at and updated_at: cursors and ETags are built from those, and they
+ * are small next to a description. Photos cost a query of their own, so they are only loaded when asked for.
+ */
+public record PlaceProjection(Set<Field> fields) {
+
+    public static final PlaceProjection ALL = new PlaceProjection(EnumSet.allOf(Field.class));
+
+    public enum Field {
+        ID("id", "id"),
+        NAME("name", "name"),
+        DESCRIPTION("description", "description"),
+        ADDRESS("address", "address"),
+        RATING("rating", "rating"),
+        LATITUDE("latitude", "latitude"),
+        LONGITUDE("longitude", "longitude"),
+        PHOTOS("photos", null),
+        CREATED_AT("createdAt", "created_at"),
+        UPDATED_AT("updatedAt", "updated_at");
+
+        private final String name;
+        private final String column;
+
+        Field(String name, String column) {
+            this.name = name;
+            this.column = column;
+        }
+
+        public String fieldName() {
+            return name;
+        }
+    }
+
+    private static final Set<Field> ALWAYS_SELECTED = EnumSet.of(Field.ID, Field.CREATED_AT, Field.UPDATED_AT);
+    private static final Map<String, Field> BY_NAME = Arrays.stream(Field.values())
+            .collect(Collectors.toUnmodifiableMap(Field::fieldName, Function.identity()));
+
+    public PlaceProjection {
+        fields = Collections.unmodifiableSet(EnumSet.copyOf(fields));
+    }
+
+    /**
+     * Reads a comma-separated list of field names. The id is always part of the projection.
+     *
+     * @throws IllegalArgumentException if a name is not a field of a place, or none is given
+     */
+    public static PlaceProjection parse(String fields) {
+        EnumSet<Field> parsed = EnumSet.of(Field.ID);
+        boolean named = false;
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            Field field = BY_NAME.get(name.trim());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field " + name.trim());
+            }
+            parsed.add(field);
+            named = true;
+        }
+        if (!named) {
+            throw new IllegalArgumentException("No fields given");
+        }
+        return new PlaceProjection(parsed);
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean isAll() {
+        return fields.size() == Field.values().length;
+    }
+
+    /**
+     * @return the API names of the fields, for serialization
+     */
+    public Set<String> fieldNames() {
+        return fields.stream().map(Field::fieldName).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * The select list, in the order of PLACE_COLUMNS.
+     */
+    String columns() {
+        return Arrays.stream(Field.values())
+                .filter(field -> field.column != null && reads(field))
+                .map(field -> field.column)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Whether the mapper should read the column behind the field. The always-selected ones are read either way.
+     */
+    boolean reads(Field field) {
+        return fields.contains(field) || ALWAYS_SELECTED.contains(field);
+    }
+}
@@ -1,17 +1,75 @@
 package com.remotelymap.api.repository;
 
 import com.remotelymap.api.model.Place;
+import com.remotelymap.api.model.PlacePhoto;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface PlaceRepository {
     Place save(Place place);
+    List<Place> saveAll(List<Place> places);
+    long copyIn(Iterator<Place> places);
     Optional<Place> findById(UUID id);
-    List<Place> findAll(int page, int size);
-    void deleteById(UUID id);
+    /**
+     * @return the places that exist, in no particular order
+     */
+    List<Place> findAllByIds(Collection<UUID> ids);
+    Optional<OffsetDateTime> findUpdatedAt(UUID id);
+    /**
+     * @return the updated_at of the places that exist, by id
+     */
+    Map<UUID, OffsetDateTime> findUpdatedAtByIds(Collection<UUID> ids);
+    boolean existsById(UUID id);
+    /**
+     * Reads only what the projection asks for; the other fields of the places are left null.
+     */
+    List<Place> findAll(int page, int size, PlaceProjection projection);
+    List<Place> findAllAfter(PlaceCursor after, int limit, PlaceProjection projection);
+    void streamAll(int fetchSize, Consumer<Place> consumer);
+    List<Place> findNearby(double latitude, double longitude, double radiusMeters, int limit);
+    List<RankedPlace> search(String query, SearchCursor after, int limit, PlaceProjection projection);
+    List<Place> findInBox(GeoBox box, int limit);
+    /**
+     * Groups the places in the box by cell of a Web Mercator grid of gridSize by gridSize cells.
+     */
+    List<PlaceCluster> clusterInBox(GeoBox box, long gridSize);
+    boolean deleteById(UUID id);
     long count();
-    void update(Place place);
-    void addPhoto(UUID placeId, String photoUrl);
+    long estimateCount();
+    /**
+     * Updates the place unless {@code expectedUpdatedAt} is given and no longer matches the row.
+     * @return the place as updated, or empty if no row was updated
+     */
+    Optional<Place> update(Place place, OffsetDateTime expectedUpdatedAt);
+    /**
+     * Moves updated_at forward after a change to something the place's representation includes, such as its photos.
+     */
+    void touch(UUID id);
+    List<Place> updateAll(List<Place> places);
+    List<UUID> deleteAllByIds(Collection<UUID> ids);
+    /**
+     * @return false if the place doesn't exist
+     */
+    boolean addPhoto(PlacePhoto photo);
+    Optional<PlacePhoto> findPhoto(UUID placeId, UUID photoId);
+    /**
+     * Places and tombstones after the given position in {@code (change_xid, id)} order.
+     */
+    List<PlaceDelta> findChangesAfter(long afterXid, UUID afterId, int limit);
+    /**
+     * Lowest transaction id that may still be invisible to the current snapshot.
+     */
+    long snapshotXmin();
+    long tombstonesPurgedThrough();
+    /**
+     * Drops the tombstones of places deleted before the cutoff.
+     */
+    void purgeTombstones(OffsetDateTime deletedBefore);
 }
\ No newline at end of file
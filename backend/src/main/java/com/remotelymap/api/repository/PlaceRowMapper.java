@@ -0,0 +1,67 @@
+package com.remotelymap.api.repository;
+
+import com.remotelymap.api.model.Place;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Maps the columns listed in {@code JdbcPlaceRepository.PLACE_COLUMNS}, or those a
+ * {@link PlaceProjection} selects; fields outside it are left null. This runs once per row of
+ * every list, search and export, so values are asked of the driver in their final type: going
+ * through getString or getTimestamp first costs an intermediate object per value. The one exception
+ * is the rating: it is a DECIMAL(3,1), and the driver only hands out a Double for float columns.
+ */
+public class PlaceRowMapper implements RowMapper<Place> {
+    private final boolean name;
+    private final boolean description;
+    private final boolean address;
+    private final boolean rating;
+    private final boolean latitude;
+    private final boolean longitude;
+
+    public PlaceRowMapper() {
+        this(PlaceProjection.ALL);
+    }
+
+    public PlaceRowMapper(PlaceProjection projection) {
+        this.name = projection.reads(PlaceProjection.Field.NAME);
+        this.description = projection.reads(PlaceProjection.Field.DESCRIPTION);
+        this.address = projection.reads(PlaceProjection.Field.ADDRESS);
+        this.rating = projection.reads(PlaceProjection.Field.RATING);
+        this.latitude = projection.reads(PlaceProjection.Field.LATITUDE);
+        this.longitude = projection.reads(PlaceProjection.Field.LONGITUDE);
+    }
+
+    @Override
+    public Place mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Place place = new Place();
+        place.setId(rs.getObject("id", UUID.class));
+        if (name) {
+            place.setName(rs.getString("name"));
+        }
+        if (description) {
+            place.setDescription(rs.getString("description"));
+        }
+        if (address) {
+            place.setAddress(rs.getString("address"));
+        }
+        if (rating) {
+            BigDecimal value = rs.getBigDecimal("rating");
+            place.setRating(value == null ? null : value.doubleValue());
+        }
+        if (latitude) {
+            place.setLatitude(rs.getObject("latitude", Double.class));
+        }
+        if (longitude) {
+            place.setLongitude(rs.getObject("longitude", Double.class));
+        }
+        place.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        place.setUpdatedAt(rs.getObject("updated_at", OffsetDateTime.class));
+        return place;
+    }
+}
@@ -0,0 +1,9 @@
+package com.remotelymap.api.repository;
+
+import com.remotelymap.api.model.Place;
+
+/**
+ * A search hit together with the relevance it was ordered by.
+ */
+public record RankedPlace(Place place, double rank) {
+}
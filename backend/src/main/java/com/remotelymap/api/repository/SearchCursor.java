@@ -0,0 +1,41 @@
+package com.remotelymap.api.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the {@code (rank DESC, id DESC)} ordering of search results. The rank is carried
+ * with full double precision so the next page starts exactly after the last hit.
+ */
+public record SearchCursor(double rank, UUID id) {
+
+    public static SearchCursor of(RankedPlace hit) {
+        return new SearchCursor(hit.rank(), hit.place().getId());
+    }
+
+    public String encode() {
+        String raw = rank + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            double rank = Double.parseDouble(raw.substring(0, separator));
+            if (!Double.isFinite(rank)) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new SearchCursor(rank, UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.remotelymap.api.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Where a client is in the {@code (change_xid, id)} ordering of changes, and the horizon the sync it is
+ * in the middle of will end at: the lowest snapshot xmin seen by any of its pages. Transactions at or
+ * above the horizon may not have been visible yet, so the next sync starts there again.
+ * Clients only ever see the encoded form, so the layout can change without breaking them.
+ */
+public record SyncToken(long afterXid, UUID afterId, long horizon) {
+
+    /** Orders after every other id; uuids compare bytewise. */
+    private static final UUID LAST_ID = new UUID(-1L, -1L);
+
+    /**
+     * Position before every change, for a client that has nothing yet.
+     */
+    public static SyncToken initial() {
+        return new SyncToken(0, LAST_ID, Long.MAX_VALUE);
+    }
+
+    /**
+     * Position to pick up from once a sync is complete: everything from the horizon on.
+     */
+    public static SyncToken startingAt(long horizon) {
+        return new SyncToken(horizon - 1, LAST_ID, Long.MAX_VALUE);
+    }
+
+    public SyncToken continuingAfter(PlaceDelta last, long horizon) {
+        return new SyncToken(last.changeXid(), last.id(), horizon);
+    }
+
+    public String encode() {
+        String raw = afterXid + ":" + afterId + ":" + horizon;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed sync token");
+            }
+            return new SyncToken(Long.parseLong(parts[0]), UUID.fromString(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed sync token", e);
+        }
+    }
+}
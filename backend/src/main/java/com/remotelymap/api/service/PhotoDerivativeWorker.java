@@ -0,0 +1,205 @@
+package com.remotelymap.api.service;
+
+import com.remotelymap.api.config.CacheConfig;
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.model.PhotoDerivative;
+import com.remotelymap.api.model.PhotoDerivativeJob;
+import com.remotelymap.api.repository.PhotoDerivativeRepository;
+import com.remotelymap.api.repository.PlaceRepository;
+import com.remotelymap.api.storage.PhotoStore;
+import com.remotelymap.api.storage.StoredPhoto;
+import com.remotelymap.api.storage.ThumbnailRenderer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders thumbnails for uploaded photos off the request path. Work comes from the
+ * photo_derivative_jobs table, so jobs queued before a restart, or by another instance, are
+ * still picked up. One poller thread claims as many jobs as there are idle workers and hands
+ * them to a fixed pool, which keeps the number of decoded images in memory bounded.
+ */
+@Slf4j
+@Component
+public class PhotoDerivativeWorker implements SmartLifecycle {
+    private final PhotoDerivativeRepository derivativeRepository;
+    private final PlaceRepository placeRepository;
+    private final PhotoStore photoStore;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final PlacesProperties.Derivatives settings;
+
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+    private Semaphore idleWorkers;
+    private volatile boolean running;
+    private volatile boolean backlog;
+
+    public PhotoDerivativeWorker(PhotoDerivativeRepository derivativeRepository, PlaceRepository placeRepository,
+                                 PhotoStore photoStore, TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                                 PlacesProperties properties) {
+        this.derivativeRepository = derivativeRepository;
+        this.placeRepository = placeRepository;
+        this.photoStore = photoStore;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.settings = properties.getPhotos().getDerivatives();
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("photo-derivatives-poller").factory());
+        workers = Executors.newFixedThreadPool(settings.getWorkers(), Thread.ofPlatform().name("photo-derivatives-", 0).factory());
+        idleWorkers = new Semaphore(settings.getWorkers());
+        running = true;
+        poller.scheduleWithFixedDelay(this::poll, 0, settings.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        poller.shutdownNow();
+        workers.shutdown();
+        try {
+            // Jobs still running when this gives up are taken over by whoever claims them after the lease
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Checks for work now instead of at the next poll. Called once an upload has committed its job.
+     */
+    public void wakeUp() {
+        if (running) {
+            try {
+                poller.execute(this::poll);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; whatever is left is claimed after the next start
+            }
+        }
+    }
+
+    private void poll() {
+        // Only this thread takes permits, so the count can't drop between reading and acquiring
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+        try {
+            List<PhotoDerivativeJob> jobs = derivativeRepository.claimDue(idle, settings.getLease(), settings.getMaxAttempts());
+            backlog = jobs.size() == idle;
+            for (PhotoDerivativeJob job : jobs) {
+                idleWorkers.acquireUninterruptibly();
+                workers.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        idleWorkers.release();
+                        if (backlog) {
+                            wakeUp();
+                        }
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not claim photo derivative jobs", e);
+        }
+    }
+
+    private void process(PhotoDerivativeJob job) {
+        try {
+            Optional<Resource> original = photoStore.load(job.getPlaceId(), job.getPhotoId());
+            if (original.isEmpty()) {
+                derivativeRepository.fail(job, "Original photo is missing from the store");
+                return;
+            }
+            BufferedImage image;
+            try (InputStream in = original.get().getInputStream()) {
+                image = ThumbnailRenderer.read(in, settings.getMaxPixels());
+            } catch (ThumbnailRenderer.ImageTooLargeException e) {
+                derivativeRepository.fail(job, e.getMessage());
+                return;
+            }
+            if (image == null) {
+                derivativeRepository.fail(job, "Photo format can't be decoded");
+                return;
+            }
+
+            List<PhotoDerivative> derivatives = new ArrayList<>();
+            for (int width : settings.getWidths()) {
+                derivatives.add(render(job, image, width));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                derivatives.forEach(derivativeRepository::saveDerivative);
+                derivativeRepository.complete(job);
+                // The thumbnails are part of the place's representation, so its version moves on
+                placeRepository.touch(job.getPlaceId());
+            });
+            for (String cacheName : List.of(CacheConfig.PLACES_CACHE, CacheConfig.PLACE_RESPONSES_CACHE)) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.evict(job.getPlaceId());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (job.getAttempts() >= settings.getMaxAttempts()) {
+                log.warn("Giving up on derivatives of photo {} after {} attempts", job.getPhotoId(), job.getAttempts(), e);
+                derivativeRepository.fail(job, String.valueOf(e));
+            } else {
+                log.info("Rendering derivatives of photo {} failed, will retry", job.getPhotoId(), e);
+                derivativeRepository.retryLater(job, settings.getRetryBackoff().multipliedBy(job.getAttempts()), String.valueOf(e));
+            }
+        }
+    }
+
+    private PhotoDerivative render(PhotoDerivativeJob job, BufferedImage image, int width) throws IOException {
+        String variant = "w" + width;
+        ThumbnailRenderer.Thumbnail thumbnail = ThumbnailRenderer.render(image, width);
+        StoredPhoto stored = photoStore.storeDerivative(job.getPlaceId(), job.getPhotoId(), variant,
+                new ByteArrayInputStream(thumbnail.content()));
+
+        PhotoDerivative derivative = new PhotoDerivative();
+        derivative.setPhotoId(job.getPhotoId());
+        derivative.setVariant(variant);
+        derivative.setWidth(thumbnail.width());
+        derivative.setHeight(thumbnail.height());
+        derivative.setContentType(thumbnail.contentType());
+        derivative.setSizeBytes(stored.sizeBytes());
+        derivative.setChecksum(stored.checksum());
+        return derivative;
+    }
+}
@@ -0,0 +1,255 @@
+package com.remotelymap.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.PlaceChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes changes to places to every open {@code GET /api/places/changes} stream. Changes are announced
+ * by triggers through pg_notify and received on one connection of this instance's own, opened with
+ * spring.datasource rather than taken from the pool: it is held for as long as the application runs,
+ * and notifications are only raised on the primary.
+ * <p>
+ * The listening thread never writes to a client. Each subscriber has a bounded queue drained by its
+ * own virtual thread, so a slow client only holds up itself. When its queue overflows, the queued
+ * events are replaced by a single {@code resync}, as they are when the listening connection was lost
+ * and events may have been missed, or when one statement changed too many places to announce each.
+ */
+@Slf4j
+@Component
+public class PlaceChangeFeed implements SmartLifecycle, MeterBinder {
+    private static final String CHANNEL = "place_changes";
+
+    private static final Message READY = new Message("ready", "{}");
+    private static final Message RESYNC = new Message("resync", "{}");
+    private static final Message HEARTBEAT = new Message(null, "heartbeat");
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final PlacesProperties.Changes settings;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private Thread listener;
+    private volatile Connection connection;
+    private volatile boolean running;
+    private volatile Counter resyncs;
+
+    public PlaceChangeFeed(DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+                           PlacesProperties properties) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.settings = properties.getChanges();
+    }
+
+    /**
+     * Opens a stream of change events. Its first event is {@code ready}: clients load what they show
+     * after it, so that nothing changed between loading and subscribing goes unnoticed. The same applies
+     * to {@code resync}, and to a reconnect.
+     *
+     * @throws ResponseStatusException 503 when this instance already serves max-subscribers streams
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= settings.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(settings.getTimeout().toMillis()), settings.getBufferSize());
+        subscriber.offer(READY);
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+        subscriber.sender = Thread.ofVirtual().name("place-changes-subscriber").start(() -> send(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().name("place-changes-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(connection);
+        try {
+            listener.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("places.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed streams")
+                .register(registry);
+        resyncs = Counter.builder("places.changes.resyncs")
+                .description("Subscribers told to resync because their buffer overflowed")
+                .register(registry);
+    }
+
+    private void listen() {
+        boolean missedEvents = false;
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (missedEvents) {
+                    subscribers.forEach(Subscriber::resync);
+                    missedEvents = false;
+                }
+                PGConnection notifications = listening.unwrap(PGConnection.class);
+                int heartbeatMillis = (int) settings.getHeartbeatInterval().toMillis();
+                long nextHeartbeat = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(heartbeatMillis);
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            publish(notification.getParameter());
+                        }
+                    }
+                    if (System.nanoTime() - nextHeartbeat >= 0) {
+                        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+                        nextHeartbeat = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                missedEvents = true;
+                log.warn("Lost the place change listener connection, reconnecting in {}", settings.getReconnectDelay(), e);
+                try {
+                    Thread.sleep(settings.getReconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void publish(String payload) {
+        PlaceChangeEvent event;
+        String data;
+        try {
+            // Read and written again so clients get the API's date format rather than Postgres's
+            event = objectMapper.readValue(payload, PlaceChangeEvent.class);
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed place change notification {}", payload, e);
+            return;
+        }
+        if (RESYNC.name().equals(event.getType())) {
+            subscribers.forEach(Subscriber::resync);
+            return;
+        }
+        Message message = new Message(event.getType(), data);
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            while (true) {
+                Message message = subscriber.queue.take();
+                subscriber.emitter.send(message.name() == null
+                        ? SseEmitter.event().comment(message.data())
+                        : SseEmitter.event().name(message.name()).data(message.data(), MediaType.APPLICATION_JSON));
+            }
+        } catch (InterruptedException | IOException | IllegalStateException e) {
+            // Unsubscribed, or the client went away; the container reports the latter to onError
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber) && subscriber.sender != null) {
+            subscriber.sender.interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // Only closed to unblock the listener
+            }
+        }
+    }
+
+    /**
+     * An SSE event, or a comment when it has no name. Events are serialized once and the text is shared
+     * by all subscribers.
+     */
+    private record Message(String name, String data) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue;
+        private volatile Thread sender;
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Only ever called from one thread at a time: the request thread until the subscriber is
+         * registered, the listener after.
+         */
+        private void offer(Message message) {
+            if (!queue.offer(message)) {
+                resync();
+                if (resyncs != null) {
+                    resyncs.increment();
+                }
+            }
+        }
+
+        private void resync() {
+            queue.clear();
+            queue.offer(RESYNC);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.remotelymap.api.service;
+
+import com.remotelymap.api.dto.TotalKind;
+
+public record PlaceCount(long value, TotalKind kind) {
+}
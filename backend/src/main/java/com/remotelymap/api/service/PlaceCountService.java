@@ -0,0 +1,143 @@
+package com.remotelymap.api.service;
+
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.repository.JdbcPlaceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Answers "how many places are there" without scanning the table on every list request.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlaceCountService {
+    private static final long UNKNOWN = -1;
+
+    private final JdbcPlaceRepository placeRepository;
+    private final PlacesProperties properties;
+
+    // One count at a time; held by whoever counts, which is not always the thread that took it
+    private final Semaphore counting = new Semaphore(1);
+    private volatile long cachedCount = UNKNOWN;
+    private volatile long refreshedAtNanos;
+    // Writes committed while a count runs, guarded by this
+    private boolean countInProgress;
+    private long deltaDuringCount;
+
+    public PlaceCount count(TotalKind kind) {
+        if (kind == null) {
+            kind = properties.getCount().getDefaultKind();
+        }
+        return switch (kind) {
+            case EXACT -> new PlaceCount(placeRepository.count(), TotalKind.EXACT);
+            case ESTIMATED -> estimated();
+            case CACHED -> new PlaceCount(cached(), TotalKind.CACHED);
+        };
+    }
+
+    public void recordCreated(long places) {
+        adjustAfterCommit(places);
+    }
+
+    public void recordDeleted(long places) {
+        adjustAfterCommit(-places);
+    }
+
+    private PlaceCount estimated() {
+        long estimate = placeRepository.estimateCount();
+        if (estimate < 0) {
+            // The table hasn't been analyzed yet, so there is nothing to estimate from
+            return new PlaceCount(cached(), TotalKind.CACHED);
+        }
+        if (estimate < properties.getCount().getExactThreshold()) {
+            return new PlaceCount(placeRepository.count(), TotalKind.EXACT);
+        }
+        return new PlaceCount(estimate, TotalKind.ESTIMATED);
+    }
+
+    /**
+     * Only the very first read waits for a count, and concurrent first readers wait for the same one.
+     * Once the count is older than the refresh interval, one read starts a recount on a thread of its
+     * own and everyone keeps getting the old count until it lands.
+     */
+    private long cached() {
+        long current = cachedCount;
+        if (current == UNKNOWN) {
+            counting.acquireUninterruptibly();
+            try {
+                if (cachedCount == UNKNOWN) {
+                    recount();
+                }
+            } finally {
+                counting.release();
+            }
+            return cachedCount;
+        }
+        if (System.nanoTime() - refreshedAtNanos > properties.getCount().getRefreshInterval().toNanos()
+                && counting.tryAcquire()) {
+            Thread.ofVirtual().name("place-count-refresh").start(() -> {
+                try {
+                    recount();
+                } catch (RuntimeException e) {
+                    log.warn("Could not recount places, keeping the cached count", e);
+                } finally {
+                    counting.release();
+                }
+            });
+        }
+        return current;
+    }
+
+    /**
+     * Writes that commit while COUNT(*) runs may not be in its snapshot, so they are added on top of it
+     * instead of being lost. One that committed just before the count started can be counted twice,
+     * which the next recount puts right.
+     */
+    private void recount() {
+        synchronized (this) {
+            countInProgress = true;
+            deltaDuringCount = 0;
+        }
+        try {
+            long counted = placeRepository.count();
+            synchronized (this) {
+                cachedCount = Math.max(0, counted + deltaDuringCount);
+                refreshedAtNanos = System.nanoTime();
+            }
+        } finally {
+            synchronized (this) {
+                countInProgress = false;
+            }
+        }
+    }
+
+    private void adjustAfterCommit(long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjust(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                adjust(delta);
+            }
+        });
+    }
+
+    private synchronized void adjust(long delta) {
+        if (countInProgress) {
+            deltaDuringCount += delta;
+        }
+        // Leave an unloaded counter alone; the first read counts from scratch anyway
+        if (cachedCount != UNKNOWN) {
+            cachedCount = Math.max(0, cachedCount + delta);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.remotelymap.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.PlaceResponse;
+import com.remotelymap.api.dto.TransferFormat;
+import com.remotelymap.api.mapper.PlaceMapper;
+import com.remotelymap.api.repository.JdbcPlaceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes every place to an output stream one row at a time, so an export of any size
+ * runs in constant memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlaceExportService {
+    /** Same column names the importer reads, so an export can be imported back as is. */
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("description")
+            .addColumn("address")
+            .addColumn("rating")
+            .addColumn("latitude")
+            .addColumn("longitude")
+            .addColumn("createdAt")
+            .addColumn("updatedAt")
+            .build()
+            .withHeader();
+
+    private final JdbcPlaceRepository placeRepository;
+    private final PlaceMapper placeMapper;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final PlacesProperties properties;
+
+    /**
+     * Runs in a read-only transaction because the driver only streams through a cursor when
+     * autocommit is off. Returns the number of places written.
+     */
+    @Transactional(readOnly = true)
+    public long exportPlaces(OutputStream out, TransferFormat format) throws IOException {
+        long started = System.nanoTime();
+        long exported = switch (format) {
+            case NDJSON -> writeNdjson(out);
+            case CSV -> writeCsv(out);
+        };
+        log.info("Exported {} places as {} in {} ms", exported, format, (System.nanoTime() - started) / 1_000_000);
+        return exported;
+    }
+
+    private long writeNdjson(OutputStream out) throws IOException {
+        // Values are written through one generator; flushing is left to the servlet buffer
+        ObjectWriter writer = objectMapper.writerFor(PlaceResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        AtomicLong exported = new AtomicLong();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            placeRepository.streamAll(properties.getExport().getFetchSize(), place -> {
+                try {
+                    writer.writeValue(generator, placeMapper.toResponse(place));
+                    exported.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (exported.get() > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return exported.get();
+    }
+
+    private long writeCsv(OutputStream out) throws IOException {
+        ObjectWriter writer = csvMapper.writerFor(PlaceResponse.class)
+                .with(CSV_SCHEMA)
+                .with(JsonGenerator.Feature.IGNORE_UNKNOWN)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        AtomicLong exported = new AtomicLong();
+        try (SequenceWriter rows = writer.writeValues(out)) {
+            placeRepository.streamAll(properties.getExport().getFetchSize(), place -> {
+                try {
+                    rows.write(placeMapper.toResponse(place));
+                    exported.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return exported.get();
+    }
+}
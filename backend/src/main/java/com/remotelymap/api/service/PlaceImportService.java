@@ -0,0 +1,167 @@
+package com.remotelymap.api.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.ImportResult;
+import com.remotelymap.api.dto.PlaceRequest;
+import com.remotelymap.api.dto.TransferFormat;
+import com.remotelymap.api.mapper.PlaceMapper;
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.repository.JdbcPlaceRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Loads places from an NDJSON or CSV stream. Records are parsed, validated and handed to COPY
+ * one at a time, so memory use doesn't grow with the size of the upload.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlaceImportService {
+    private final JdbcPlaceRepository placeRepository;
+    private final PlaceCountService placeCountService;
+    private final PlaceMapper placeMapper;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final Validator validator;
+    private final PlacesProperties properties;
+
+    /**
+     * Imports every valid record in one transaction. Invalid records are skipped and reported;
+     * a body that can't be parsed at all rolls the whole import back.
+     */
+    @Transactional
+    public ImportResult importPlaces(InputStream body, TransferFormat format) throws IOException {
+        long started = System.nanoTime();
+        try (MappingIterator<PlaceRequest> records = openReader(body, format)) {
+            ValidatingIterator places = new ValidatingIterator(records);
+            long imported = placeRepository.copyIn(places);
+            placeCountService.recordCreated(imported);
+
+            long durationMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("Imported {} places from {} in {} ms, {} rejected", imported, format, durationMillis, places.rejected);
+            return new ImportResult(imported, places.rejected, places.rejections, durationMillis);
+        }
+    }
+
+    private MappingIterator<PlaceRequest> openReader(InputStream body, TransferFormat format) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.readerFor(PlaceRequest.class).readValues(body);
+            case CSV -> csvMapper.readerFor(PlaceRequest.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(body);
+        };
+    }
+
+    /**
+     * Pulls records from the parser, skipping and recording the ones that fail validation.
+     */
+    private class ValidatingIterator implements Iterator<Place> {
+        private final MappingIterator<PlaceRequest> records;
+        private final List<ImportResult.RejectedRow> rejections = new ArrayList<>();
+        private long row;
+        private long rejected;
+        private Place next;
+
+        ValidatingIterator(MappingIterator<PlaceRequest> records) {
+            this.records = records;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && hasNextRecord()) {
+                row++;
+                PlaceRequest request = nextRecord();
+                if (request == null) {
+                    continue;
+                }
+                Set<ConstraintViolation<PlaceRequest>> violations = validator.validate(request);
+                if (violations.isEmpty()) {
+                    next = placeMapper.toEntity(request);
+                } else {
+                    Map<String, String> errors = new LinkedHashMap<>();
+                    violations.forEach(violation ->
+                            errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                    reject(errors);
+                }
+                if (row % properties.getImport().getProgressInterval() == 0) {
+                    log.info("Import progress: {} records read, {} rejected", row, rejected);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Place next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Place place = next;
+            next = null;
+            return place;
+        }
+
+        private boolean hasNextRecord() {
+            try {
+                return records.hasNextValue();
+            } catch (IOException e) {
+                throw unreadable(e);
+            }
+        }
+
+        /**
+         * Returns null for a record that parsed but couldn't be bound to a PlaceRequest, e.g. a
+         * non-numeric rating; the iterator resynchronises on the next record by itself.
+         */
+        private PlaceRequest nextRecord() {
+            try {
+                return records.nextValue();
+            } catch (JsonParseException e) {
+                throw unreadable(e);
+            } catch (JsonMappingException e) {
+                reject(Map.of("record", e.getOriginalMessage()));
+                return null;
+            } catch (IOException e) {
+                throw unreadable(e);
+            }
+        }
+
+        private void reject(Map<String, String> errors) {
+            rejected++;
+            if (rejections.size() < properties.getImport().getMaxReportedRejections()) {
+                rejections.add(new ImportResult.RejectedRow(row, errors));
+            }
+        }
+
+        private RuntimeException unreadable(IOException e) {
+            if (e instanceof JsonParseException) {
+                return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Malformed input at record " + row + ": " + ((JsonParseException) e).getOriginalMessage());
+            }
+            return new UncheckedIOException(e);
+        }
+    }
+}
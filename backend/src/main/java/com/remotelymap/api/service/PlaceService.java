@@ -1,73 +1,354 @@
 package com.remotelymap.api.service;
 
+import com.remotelymap.api.config.CacheConfig;
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.model.PhotoDerivative;
 import com.remotelymap.api.model.Place;
+import com.remotelymap.api.model.PlacePhoto;
+import com.remotelymap.api.repository.GeoBox;
 import com.remotelymap.api.repository.JdbcPlaceRepository;
+import com.remotelymap.api.repository.PhotoDerivativeRepository;
+import com.remotelymap.api.repository.PlaceCursor;
+import com.remotelymap.api.repository.PlaceProjection;
+import com.remotelymap.api.repository.RankedPlace;
+import com.remotelymap.api.repository.SearchCursor;
+import com.remotelymap.api.storage.PhotoStore;
+import com.remotelymap.api.storage.StoredPhoto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class PlaceService {
     private final JdbcPlaceRepository placeRepository;
+    private final PlaceCountService placeCountService;
+    private final PlacesProperties properties;
+    private final PhotoStore photoStore;
+    private final PhotoDerivativeRepository derivativeRepository;
+    private final PhotoDerivativeWorker derivativeWorker;
+    private final CacheManager cacheManager;
 
     @Transactional(readOnly = true)
-    public List<Place> getAllPlaces(int page, int size) {
-        return placeRepository.findAll(page, size);
+    public List<Place> getAllPlaces(int page, int size, PlaceProjection projection) {
+        return placeRepository.findAll(page, size, projection);
     }
 
     @Transactional(readOnly = true)
+    public List<Place> getPlacesAfter(PlaceCursor after, int limit, PlaceProjection projection) {
+        return placeRepository.findAllAfter(after, limit, projection);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Place> getNearbyPlaces(double latitude, double longitude, double radiusMeters, int limit) {
+        return placeRepository.findNearby(latitude, longitude, radiusMeters, limit);
+    }
+
+    /**
+     * Sparse views get their places, found with one index scan that stops after max-places + 1 rows;
+     * only when that many are in view does the box get clustered.
+     */
+    @Transactional(readOnly = true)
+    public PlaceViewport getViewport(GeoBox box, int zoom) {
+        PlacesProperties.Viewport settings = properties.getViewport();
+        List<Place> places = placeRepository.findInBox(box, settings.getMaxPlaces() + 1);
+        if (places.size() <= settings.getMaxPlaces()) {
+            return new PlaceViewport(places, List.of());
+        }
+        long gridSize = box.gridSize(zoom, settings.getCellsPerTile(), settings.getMaxCellsPerAxis());
+        return new PlaceViewport(List.of(), placeRepository.clusterInBox(box, gridSize));
+    }
+
+    /**
+     * @throws ResponseStatusException with 400 if no word of the query is long enough to search by
+     */
+    @Transactional(readOnly = true)
+    public List<RankedPlace> searchPlaces(String query, SearchCursor after, int limit, PlaceProjection projection) {
+        if (!JdbcPlaceRepository.isSearchable(query)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search for at least one word of " + JdbcPlaceRepository.MIN_PREFIX_LENGTH + " letters or digits");
+        }
+        return placeRepository.search(query, after, limit, projection);
+    }
+
+    /**
+     * Served from the by-id cache when the place is there, otherwise loaded and cached. Not transactional,
+     * which keeps the load on the primary: what is loaded here stays cached for minutes, and a lagging
+     * replica could hand back the place as it was before an update just evicted it.
+     */
     public Optional<Place> getPlaceById(UUID id) {
-        return placeRepository.findById(id);
+        Cache cache = cacheManager.getCache(CacheConfig.PLACES_CACHE);
+        Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+        if (cached != null && cached.get() instanceof Place place) {
+            return Optional.of(place);
+        }
+        Optional<Place> loaded = placeRepository.findById(id);
+        if (cache != null) {
+            loaded.ifPresent(place -> cacheIfCurrent(cache, place));
+        }
+        return loaded;
+    }
+
+    /**
+     * Places already in the by-id cache are served from it, the others read with one query and cached
+     * as in {@link #getPlaceById}, with their versions checked again in one more.
+     * Not transactional, so a lookup that is all hits doesn't take a connection; the query for the rest
+     * then runs on the primary, as cached loads must.
+     *
+     * @return the places that exist, by id
+     */
+    public Map<UUID, Place> getPlacesByIds(Collection<UUID> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.PLACES_CACHE);
+        Map<UUID, Place> found = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID id : ids) {
+            Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+            if (cached != null && cached.get() instanceof Place place) {
+                found.put(id, place);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<Place> loaded = placeRepository.findAllByIds(misses);
+            loaded.forEach(place -> found.put(place.getId(), place));
+            if (cache != null && !loaded.isEmpty()) {
+                cacheIfCurrent(cache, loaded);
+            }
+        }
+        return found;
     }
 
     @Transactional
     public Place createPlace(Place place) {
-        return placeRepository.save(place);
+        Place saved = placeRepository.save(place);
+        placeCountService.recordCreated(1);
+        return saved;
     }
 
+    /**
+     * Inserts the places in chunks of {@code places.batch.chunk-size}, one round trip per chunk,
+     * and returns them in input order.
+     */
     @Transactional
-    public Optional<Place> updatePlace(UUID id, Place place) {
-        return placeRepository.findById(id).map(existingPlace -> {
-            place.setId(id);
-            placeRepository.update(place);
-            return placeRepository.findById(id).orElse(place);
-        });
+    public List<Place> createPlaces(List<Place> places) {
+        List<Place> saved = new ArrayList<>(places.size());
+        for (List<Place> chunk : chunks(places)) {
+            saved.addAll(placeRepository.saveAll(chunk));
+        }
+        placeCountService.recordCreated(saved.size());
+        return saved;
+    }
+
+    /**
+     * Updates the places that exist, keyed by id. Ids with no matching row are absent from the result.
+     */
+    @Transactional
+    public Map<UUID, Place> updatePlaces(List<Place> places) {
+        Map<UUID, Place> updated = new HashMap<>();
+        for (List<Place> chunk : chunks(places)) {
+            placeRepository.updateAll(chunk).forEach(place -> updated.put(place.getId(), place));
+        }
+        evict(updated.keySet());
+        return updated;
+    }
+
+    @Transactional
+    public Set<UUID> deletePlaces(List<UUID> ids) {
+        Set<UUID> deleted = new HashSet<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            deleted.addAll(placeRepository.deleteAllByIds(chunk));
+        }
+        placeCountService.recordDeleted(deleted.size());
+        evict(deleted);
+        runAfterCommit(() -> deleted.forEach(photoStore::deleteAll));
+        return deleted;
+    }
+
+    /**
+     * Evicts the places, and their serialized bodies, that a batch changed. Like the single-item
+     * evictions these are held back until the transaction commits.
+     */
+    private void evict(Collection<UUID> ids) {
+        for (String name : List.of(CacheConfig.PLACES_CACHE, CacheConfig.PLACE_RESPONSES_CACHE)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                ids.forEach(cache::evict);
+            }
+        }
+    }
+
+    /**
+     * Caches places that were loaded outside the cache, then reads their versions again and evicts those
+     * that moved on. An update evicts after its commit, so a load that raced with it is either put
+     * before that evict, or put after it and caught here; either way the stale copy doesn't stay
+     * for the TTL, where conditional requests and the response cache would trust it. Puts are
+     * immediate, since no transaction is active.
+     */
+    private void cacheIfCurrent(Cache cache, Place place) {
+        cache.put(place.getId(), place);
+        if (!placeRepository.findUpdatedAt(place.getId()).map(place.getUpdatedAt()::isEqual).orElse(false)) {
+            cache.evict(place.getId());
+        }
+    }
+
+    private void cacheIfCurrent(Cache cache, List<Place> places) {
+        places.forEach(place -> cache.put(place.getId(), place));
+        Map<UUID, OffsetDateTime> versions = placeRepository.findUpdatedAtByIds(
+                places.stream().map(Place::getId).toList());
+        for (Place place : places) {
+            OffsetDateTime version = versions.get(place.getId());
+            if (version == null || !version.isEqual(place.getUpdatedAt())) {
+                cache.evict(place.getId());
+            }
+        }
+    }
+
+    /**
+     * Version of the place for answering conditional requests: taken from the cache when the place is there,
+     * otherwise read on its own, without the photos.
+     */
+    public Optional<OffsetDateTime> getPlaceVersion(UUID id) {
+        Cache places = cacheManager.getCache(CacheConfig.PLACES_CACHE);
+        Cache.ValueWrapper cached = places != null ? places.get(id) : null;
+        if (cached != null && cached.get() instanceof Place place) {
+            return Optional.of(place.getUpdatedAt());
+        }
+        return placeRepository.findUpdatedAt(id);
+    }
+
+    /**
+     * @param expectedVersion when given, the update only goes ahead if the place still has this updated_at
+     * @throws ResponseStatusException with 412 if the place exists but has another version
+     */
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.PLACES_CACHE, CacheConfig.PLACE_RESPONSES_CACHE}, key = "#id")
+    public Optional<Place> updatePlace(UUID id, Place place, OffsetDateTime expectedVersion) {
+        place.setId(id);
+        Optional<Place> updated = placeRepository.update(place, expectedVersion);
+        // Telling a stale version from a missing place costs a second query, but only when the update failed
+        if (updated.isEmpty() && expectedVersion != null && placeRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Place has been modified since it was read");
+        }
+        return updated;
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.PLACES_CACHE, CacheConfig.PLACE_RESPONSES_CACHE}, key = "#id")
     public boolean deletePlace(UUID id) {
-        if (placeRepository.findById(id).isPresent()) {
-            placeRepository.deleteById(id);
+        if (placeRepository.deleteById(id)) {
+            placeCountService.recordDeleted(1);
+            runAfterCommit(() -> photoStore.deleteAll(id));
             return true;
         }
         return false;
     }
 
     @Transactional(readOnly = true)
-    public long countPlaces() {
-        return placeRepository.count();
+    public PlaceCount countPlaces(TotalKind kind) {
+        return placeCountService.count(kind);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.PLACES_CACHE, CacheConfig.PLACE_RESPONSES_CACHE}, key = "#id")
     public Optional<String> uploadPhoto(UUID id, MultipartFile file) {
-        return placeRepository.findById(id).map(place -> {
-            if (file.isEmpty()) {
-                throw new IllegalArgumentException("File is empty");
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File is empty");
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !properties.getPhotos().getAllowedContentTypes().contains(contentType)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File must be one of "
+                    + properties.getPhotos().getAllowedContentTypes());
+        }
+
+        UUID photoId = UUID.randomUUID();
+        StoredPhoto stored;
+        try (InputStream content = file.getInputStream()) {
+            stored = photoStore.store(id, photoId, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store photo for place " + id, e);
+        }
+        // The file is written before the row; if the row never commits, drop the file again
+        runAfterRollback(() -> photoStore.delete(id, photoId));
+
+        PlacePhoto photo = new PlacePhoto();
+        photo.setId(photoId);
+        photo.setPlaceId(id);
+        photo.setPhotoUrl("/photos/" + id + "/" + photoId);
+        photo.setContentType(contentType);
+        photo.setSizeBytes(stored.sizeBytes());
+        photo.setChecksum(stored.checksum());
+        // Whether the place exists is only learned here, so a file stored for a missing place is removed again
+        if (!placeRepository.addPhoto(photo)) {
+            photoStore.deleteAll(id);
+            return Optional.empty();
+        }
+        // Thumbnails are rendered in the background; the job commits with the photo
+        derivativeRepository.enqueue(photoId, id);
+        runAfterCommit(derivativeWorker::wakeUp);
+
+        return Optional.of(photo.getPhotoUrl());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PlacePhoto> getPhoto(UUID placeId, UUID photoId) {
+        return placeRepository.findPhoto(placeId, photoId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PhotoDerivative> getPhotoDerivative(UUID placeId, UUID photoId, String variant) {
+        return derivativeRepository.findDerivative(placeId, photoId, variant);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
-            if (!file.getContentType().startsWith("image/")) {
-                throw new IllegalArgumentException("File must be an image");
+        });
+    }
+
+    private static void runAfterRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
             }
-            
-            String photoUrl = "/photos/" + id + "/" + file.getOriginalFilename();
-            placeRepository.addPhoto(id, photoUrl);
-            
-            return photoUrl;
         });
     }
-} 
\ No newline at end of file
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        int chunkSize = properties.getBatch().getChunkSize();
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+}
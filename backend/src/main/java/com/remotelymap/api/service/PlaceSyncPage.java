@@ -0,0 +1,13 @@
+package com.remotelymap.api.service;
+
+import com.remotelymap.api.repository.PlaceDelta;
+import com.remotelymap.api.repository.SyncToken;
+
+import java.util.List;
+
+/**
+ * One page of a delta sync. The token is passed back for the next page, or, once hasMore is false,
+ * kept for the next sync.
+ */
+public record PlaceSyncPage(List<PlaceDelta> deltas, SyncToken nextToken, boolean hasMore) {
+}
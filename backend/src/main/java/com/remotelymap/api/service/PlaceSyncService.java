@@ -0,0 +1,85 @@
+package com.remotelymap.api.service;
+
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.repository.JdbcPlaceRepository;
+import com.remotelymap.api.repository.PlaceDelta;
+import com.remotelymap.api.repository.SyncToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out what changed since a client last synced, and purges the tombstones of deletions every
+ * client should have seen by now.
+ */
+@Slf4j
+@Service
+public class PlaceSyncService implements SmartLifecycle {
+    private final JdbcPlaceRepository placeRepository;
+    private final PlacesProperties.Sync settings;
+
+    private ScheduledExecutorService purger;
+    private volatile boolean running;
+
+    public PlaceSyncService(JdbcPlaceRepository placeRepository, PlacesProperties properties) {
+        this.placeRepository = placeRepository;
+        this.settings = properties.getSync();
+    }
+
+    /**
+     * Repeatable read, so the snapshot xmin and the changes come from the same snapshot.
+     *
+     * @throws ResponseStatusException 410 when tombstones the token still needs have been purged
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public PlaceSyncPage getChanges(SyncToken token, int limit) {
+        long xmin = placeRepository.snapshotXmin();
+        if (token.afterXid() > 0 && placeRepository.tombstonesPurgedThrough() >= token.afterXid()) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync token has expired; sync again without one");
+        }
+        List<PlaceDelta> deltas = placeRepository.findChangesAfter(token.afterXid(), token.afterId(), limit + 1);
+        long horizon = Math.min(token.horizon(), xmin);
+        if (deltas.size() > limit) {
+            deltas = deltas.subList(0, limit);
+            return new PlaceSyncPage(deltas, token.continuingAfter(deltas.get(limit - 1), horizon), true);
+        }
+        return new PlaceSyncPage(deltas, SyncToken.startingAt(horizon), false);
+    }
+
+    @Override
+    public void start() {
+        purger = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("place-tombstone-purger").daemon().factory());
+        running = true;
+        long interval = settings.getPurgeInterval().toMillis();
+        purger.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        purger.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void purge() {
+        try {
+            placeRepository.purgeTombstones(OffsetDateTime.now().minus(settings.getTombstoneRetention()));
+        } catch (RuntimeException e) {
+            log.warn("Could not purge place tombstones", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.remotelymap.api.service;
+
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.repository.PlaceCluster;
+
+import java.util.List;
+
+/**
+ * What a map shows of a box: the places in it, or clusters of them when there are too many. Exactly one
+ * of the two lists is filled.
+ */
+public record PlaceViewport(List<Place> places, List<PlaceCluster> clusters) {
+
+    public boolean isClustered() {
+        return !clusters.isEmpty();
+    }
+}
@@ -0,0 +1,125 @@
+package com.remotelymap.api.storage;
+
+import com.remotelymap.api.config.PlacesProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores photos as files under {@code places.photos.root}/{placeId}/{photoId}, with derivatives
+ * alongside as {photoId}-{variant}.
+ */
+@Slf4j
+@Component
+public class LocalPhotoStore implements PhotoStore {
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final Path root;
+
+    public LocalPhotoStore(PlacesProperties properties) throws IOException {
+        this.root = properties.getPhotos().getRoot().toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    @Override
+    public StoredPhoto store(UUID placeId, UUID photoId, InputStream content) throws IOException {
+        return write(placeId, photoId.toString(), content);
+    }
+
+    @Override
+    public StoredPhoto storeDerivative(UUID placeId, UUID photoId, String variant, InputStream content)
+            throws IOException {
+        return write(placeId, derivativeName(photoId, variant), content);
+    }
+
+    @Override
+    public Optional<Resource> load(UUID placeId, UUID photoId) {
+        Path file = root.resolve(placeId.toString()).resolve(photoId.toString());
+        return Files.isRegularFile(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Resource> loadDerivative(UUID placeId, UUID photoId, String variant) {
+        Path file = root.resolve(placeId.toString()).resolve(derivativeName(photoId, variant));
+        return Files.isRegularFile(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+    }
+
+    @Override
+    public void delete(UUID placeId, UUID photoId) {
+        Path directory = root.resolve(placeId.toString());
+        try (DirectoryStream<Path> derivatives = Files.newDirectoryStream(directory, photoId + "-*")) {
+            for (Path derivative : derivatives) {
+                Files.deleteIfExists(derivative);
+            }
+            Files.deleteIfExists(directory.resolve(photoId.toString()));
+        } catch (NoSuchFileException e) {
+            // Nothing was ever stored for this place
+        } catch (IOException e) {
+            log.warn("Could not delete photo {} of place {}", photoId, placeId, e);
+        }
+    }
+
+    @Override
+    public void deleteAll(UUID placeId) {
+        try {
+            FileSystemUtils.deleteRecursively(root.resolve(placeId.toString()));
+        } catch (IOException e) {
+            log.warn("Could not delete photos of place {}", placeId, e);
+        }
+    }
+
+    private StoredPhoto write(UUID placeId, String name, InputStream content) throws IOException {
+        Path directory = Files.createDirectories(root.resolve(placeId.toString()));
+        Path target = directory.resolve(name);
+        Path partial = directory.resolve(name + ".part");
+
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(content, digest));
+             FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            // The channel hands bytes to the file in large chunks, never holding the whole upload
+            long transferred;
+            while ((transferred = out.transferFrom(in, size, TRANSFER_CHUNK)) > 0) {
+                size += transferred;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new StoredPhoto(size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static String derivativeName(UUID photoId, String variant) {
+        return photoId + "-" + variant;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every JVM", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.remotelymap.api.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the bytes of uploaded photos. Metadata lives in place_photos; a store only knows
+ * how to write, read and remove content addressed by place and photo id.
+ */
+public interface PhotoStore {
+
+    /**
+     * Copies the stream into the store. The content only becomes visible once it has been
+     * written completely.
+     */
+    StoredPhoto store(UUID placeId, UUID photoId, InputStream content) throws IOException;
+
+    Optional<Resource> load(UUID placeId, UUID photoId);
+
+    /**
+     * Stores a resized copy of a photo next to the original. Storing the same variant again replaces it.
+     */
+    StoredPhoto storeDerivative(UUID placeId, UUID photoId, String variant, InputStream content) throws IOException;
+
+    Optional<Resource> loadDerivative(UUID placeId, UUID photoId, String variant);
+
+    /**
+     * Removes the photo together with all of its derivatives.
+     */
+    void delete(UUID placeId, UUID photoId);
+
+    void deleteAll(UUID placeId);
+}
@@ -0,0 +1,7 @@
+package com.remotelymap.api.storage;
+
+/**
+ * What a {@link PhotoStore} learned about the bytes while writing them.
+ */
+public record StoredPhoto(long sizeBytes, String checksum) {
+}
@@ -0,0 +1,116 @@
+package com.remotelymap.api.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Scales photos down with the JDK's own imaging. Opaque images become JPEGs, images with
+ * transparency PNGs.
+ */
+public final class ThumbnailRenderer {
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private ThumbnailRenderer() {
+    }
+
+    public record Thumbnail(byte[] content, int width, int height, String contentType) {
+    }
+
+    /**
+     * Thrown before decoding an image whose header declares more pixels than allowed. A few kilobytes
+     * of compressed input can describe an image that takes gigabytes once decoded.
+     */
+    public static class ImageTooLargeException extends IOException {
+        public ImageTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Decodes the first image in the content, after checking its dimensions in the header.
+     *
+     * @return the decoded image, or null if no installed reader understands the format
+     * @throws ImageTooLargeException if the image has more than {@code maxPixels} pixels
+     */
+    public static BufferedImage read(InputStream content, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new ImageTooLargeException("Photo is " + width + "x" + height + ", more than " + maxPixels + " pixels");
+                }
+                return reader.read(0, reader.getDefaultReadParam());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static Thumbnail render(BufferedImage source, int maxWidth) throws IOException {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+
+        BufferedImage image = source;
+        // Halving repeatedly with bilinear filtering looks close to bicubic at a fraction of the cost,
+        // and unlike a single large step it doesn't skip over source pixels
+        do {
+            int stepWidth = Math.max(width, image.getWidth() / 2);
+            int stepHeight = Math.max(height, image.getHeight() / 2);
+            image = scale(image, stepWidth, stepHeight, alpha);
+        } while (image.getWidth() > width || image.getHeight() > height);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(image, "png", out);
+            return new Thumbnail(out.toByteArray(), width, height, "image/png");
+        }
+        writeJpeg(image, out);
+        return new Thumbnail(out.toByteArray(), width, height, "image/jpeg");
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
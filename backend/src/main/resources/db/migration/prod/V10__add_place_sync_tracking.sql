@@ -0,0 +1,52 @@
+-- Delta sync (GET /api/places/sync). Every row remembers the id of the transaction that last wrote it,
+-- and deleted places leave a tombstone stamped the same way. Unlike updated_at or a sequence, which
+-- are taken before commit and can become visible out of order, transaction ids let a sync tell which
+-- writes it can't have seen yet: all of them are at or above the xmin of its snapshot.
+ALTER TABLE places ADD COLUMN change_xid BIGINT NOT NULL DEFAULT (pg_current_xact_id()::text::bigint);
+
+CREATE INDEX idx_places_change_xid ON places (change_xid, id);
+
+CREATE TABLE place_tombstones (
+    id UUID PRIMARY KEY,
+    change_xid BIGINT NOT NULL DEFAULT (pg_current_xact_id()::text::bigint),
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_place_tombstones_change_xid ON place_tombstones (change_xid, id);
+CREATE INDEX idx_place_tombstones_deleted_at ON place_tombstones (deleted_at);
+
+-- Tombstones are purged after a retention period. Sync tokens from before the newest purged
+-- tombstone could miss deletions, so they are refused and the client starts over.
+CREATE TABLE place_sync_horizon (
+    singleton BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (singleton),
+    purged_through BIGINT NOT NULL
+);
+
+INSERT INTO place_sync_horizon (purged_through) VALUES (0);
+
+CREATE FUNCTION stamp_place_change() RETURNS trigger AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    IF TG_OP = 'INSERT' THEN
+        -- A place imported again under its old id is no longer deleted
+        DELETE FROM place_tombstones WHERE id = NEW.id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER places_stamp_change
+    BEFORE INSERT OR UPDATE ON places
+    FOR EACH ROW EXECUTE FUNCTION stamp_place_change();
+
+CREATE FUNCTION record_place_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO place_tombstones (id) VALUES (OLD.id)
+    ON CONFLICT (id) DO UPDATE SET change_xid = EXCLUDED.change_xid, deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER places_record_tombstone
+    AFTER DELETE ON places
+    FOR EACH ROW EXECUTE FUNCTION record_place_tombstone();
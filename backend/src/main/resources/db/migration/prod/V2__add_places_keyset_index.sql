@@ -0,0 +1,9 @@
+-- Keyset pagination walks places by (created_at, id); both columns have to be
+-- non-null for the row comparison in the WHERE clause to behave.
+UPDATE places SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+UPDATE places SET updated_at = created_at WHERE updated_at IS NULL;
+
+ALTER TABLE places ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE places ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE INDEX idx_places_created_at_id ON places (created_at DESC, id DESC);
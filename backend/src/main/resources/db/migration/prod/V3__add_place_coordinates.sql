@@ -0,0 +1,14 @@
+-- earthdistance models the globe as a cube, which gives us a GiST-indexable
+-- point type with a KNN distance operator without depending on PostGIS.
+CREATE EXTENSION IF NOT EXISTS cube;
+CREATE EXTENSION IF NOT EXISTS earthdistance;
+
+ALTER TABLE places
+    ADD COLUMN latitude DOUBLE PRECISION,
+    ADD COLUMN longitude DOUBLE PRECISION,
+    ADD CONSTRAINT places_latitude_range CHECK (latitude BETWEEN -90 AND 90),
+    ADD CONSTRAINT places_longitude_range CHECK (longitude BETWEEN -180 AND 180),
+    ADD CONSTRAINT places_coordinates_paired CHECK ((latitude IS NULL) = (longitude IS NULL));
+
+-- Queries must use exactly this expression for the planner to pick the index
+CREATE INDEX idx_places_location ON places USING gist (ll_to_earth(latitude, longitude));
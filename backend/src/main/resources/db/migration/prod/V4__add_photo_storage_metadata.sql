@@ -0,0 +1,5 @@
+-- Photos uploaded before this migration only have a URL; their bytes were never kept
+ALTER TABLE place_photos
+    ADD COLUMN content_type VARCHAR(100),
+    ADD COLUMN size_bytes BIGINT,
+    ADD COLUMN checksum VARCHAR(64);
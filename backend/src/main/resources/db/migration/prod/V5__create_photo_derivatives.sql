@@ -0,0 +1,29 @@
+-- One row per uploaded photo whose thumbnails still have to be rendered. Rows are
+-- claimed with FOR UPDATE SKIP LOCKED; a claim is a lease that expires at
+-- next_attempt_at, so jobs held by an instance that died are picked up again.
+CREATE TABLE photo_derivative_jobs (
+    photo_id UUID PRIMARY KEY REFERENCES place_photos(id) ON DELETE CASCADE,
+    place_id UUID NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT photo_derivative_jobs_status_check CHECK (status IN ('PENDING', 'RUNNING', 'FAILED'))
+);
+
+CREATE INDEX idx_photo_derivative_jobs_due
+    ON photo_derivative_jobs (next_attempt_at)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE TABLE photo_derivatives (
+    photo_id UUID NOT NULL REFERENCES place_photos(id) ON DELETE CASCADE,
+    variant VARCHAR(16) NOT NULL,
+    width INTEGER NOT NULL,
+    height INTEGER NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    checksum VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (photo_id, variant)
+);
@@ -0,0 +1,2 @@
+-- Photos are always loaded by place; without this every page of places scanned place_photos
+CREATE INDEX idx_place_photos_place_id ON place_photos (place_id, created_at, id);
@@ -0,0 +1,15 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The 'simple' configuration doesn't stem or drop stop words, which suits names and
+-- addresses in any language. Name matches weigh most, then address, then description.
+ALTER TABLE places ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(address, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+) STORED;
+
+CREATE INDEX idx_places_search_vector ON places USING GIN (search_vector);
+
+-- Trigram indexes answer the typo-tolerant word similarity operator (<%)
+CREATE INDEX idx_places_name_trgm ON places USING GIN (name gin_trgm_ops);
+CREATE INDEX idx_places_address_trgm ON places USING GIN (address gin_trgm_ops);
@@ -0,0 +1,64 @@
+-- Announces every committed change to a place on the place_changes channel; the backend fans the
+-- notifications out to GET /api/places/changes. Payloads are small JSON objects naming the place and
+-- its new version, never its content, as notifications are capped at 8000 bytes.
+--
+-- Places are announced once per statement rather than once per row. A COPY or a batch statement
+-- writing thousands of rows would otherwise queue a notification for each, every one of them held in
+-- the notify queue until all listeners have read it. Statements that change more than 100 places send
+-- a single resync instead, telling clients to reload what they show.
+CREATE FUNCTION notify_place_changes() RETURNS trigger AS $$
+BEGIN
+    IF (SELECT count(*) FROM (SELECT 1 FROM changed_places LIMIT 101) capped) > 100 THEN
+        PERFORM pg_notify('place_changes', json_build_object('type', 'resync')::text);
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('place_changes', json_build_object('type', 'deleted', 'id', id)::text)
+        FROM changed_places;
+    ELSE
+        PERFORM pg_notify('place_changes', json_build_object(
+            'type', CASE TG_OP WHEN 'INSERT' THEN 'created' ELSE 'updated' END,
+            'id', id,
+            'updatedAt', updated_at)::text)
+        FROM changed_places;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A trigger with a transition table can only fire on one kind of event
+CREATE TRIGGER places_notify_insert
+    AFTER INSERT ON places
+    REFERENCING NEW TABLE AS changed_places
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_place_changes();
+
+CREATE TRIGGER places_notify_update
+    AFTER UPDATE ON places
+    REFERENCING NEW TABLE AS changed_places
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_place_changes();
+
+CREATE TRIGGER places_notify_delete
+    AFTER DELETE ON places
+    REFERENCING OLD TABLE AS changed_places
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_place_changes();
+
+-- A photo changes its place. The place's own row is normally updated by the same statement, and
+-- Postgres delivers identical notifications of one transaction only once, so this adds nothing then.
+-- Photos deleted along with their place find no place and stay quiet.
+CREATE FUNCTION notify_place_photo_change() RETURNS trigger AS $$
+DECLARE
+    changed_place_id UUID := CASE TG_OP WHEN 'DELETE' THEN OLD.place_id ELSE NEW.place_id END;
+    place_updated_at TIMESTAMP WITH TIME ZONE;
+BEGIN
+    SELECT updated_at INTO place_updated_at FROM places WHERE id = changed_place_id;
+    IF FOUND THEN
+        PERFORM pg_notify('place_changes', json_build_object(
+            'type', 'updated',
+            'id', changed_place_id,
+            'updatedAt', place_updated_at)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER place_photos_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON place_photos
+    FOR EACH ROW EXECUTE FUNCTION notify_place_photo_change();
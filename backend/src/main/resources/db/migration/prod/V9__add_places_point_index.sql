@@ -0,0 +1,4 @@
+-- Viewport queries test point(longitude, latitude) <@ box(...). Unlike the earthdistance index,
+-- which answers distances on the globe, this one answers rectangles in plain degrees, which is
+-- what a map shows. Queries must use exactly this expression for the planner to pick the index.
+CREATE INDEX idx_places_point ON places USING gist (point(longitude, latitude));
@@ -0,0 +1,109 @@
+package com.remotelymap.api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @AfterEach
+    void reset() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void shouldSendOnlyReadOnlyTransactionsToTheReplica() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection replicaConnection = replicaConnection(0.1);
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-0", dataSourceFor(replicaConnection)));
+        dataSource.measureLag();
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        ReadYourWrites.pinToPrimary();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void shouldPassOverReplicasThatLagTooFarBehind() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection fresh = replicaConnection(0.5);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", dataSourceFor(replicaConnection(30)));
+        replicas.put("replica-1", dataSourceFor(fresh));
+        ReplicaRoutingDataSource dataSource = routing(replicas);
+        dataSource.measureLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(dataSource.getConnection()).isSameAs(fresh);
+        }
+    }
+
+    @Test
+    void shouldFallBackToThePrimaryWhenNoReplicaAnswers() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection replicaConnection = replicaConnection(0);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(replicaConnection).thenThrow(new SQLTransientConnectionException("down"));
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-0", replica));
+        dataSource.measureLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        // Out of rotation now, so the replica isn't even tried again
+        assertThat(dataSource.chooseReplica()).isNull();
+    }
+
+    @Test
+    void shouldNotUseAReplicaBeforeItsLagIsKnown() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-0", replica));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.chooseReplica()).isNull();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    private ReplicaRoutingDataSource routing(Map<String, DataSource> replicas) {
+        return new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5), Duration.ofHours(1));
+    }
+
+    private static DataSource dataSourceFor(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private static Connection replicaConnection(double lagSeconds) throws SQLException {
+        ResultSet lag = mock(ResultSet.class);
+        when(lag.next()).thenReturn(true);
+        when(lag.getDouble(1)).thenReturn(lagSeconds);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(lag);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        return connection;
+    }
+}
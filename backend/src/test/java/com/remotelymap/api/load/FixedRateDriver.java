@@ -0,0 +1,107 @@
+package com.remotelymap.api.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load: each scenario sends requests at a fixed rate whether or not earlier ones have
+ * answered, and latency is measured from when a request was due rather than when it was sent.
+ * A stalled server therefore shows up in the percentiles instead of quietly lowering the rate.
+ */
+final class FixedRateDriver {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final Duration warmup;
+    private final Duration duration;
+
+    FixedRateDriver(Duration warmup, Duration duration) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    record Scenario(String name, double requestsPerSecond, Supplier<HttpRequest> request) {
+    }
+
+    record Result(String name, Histogram latencyMicros, long errors) {
+        double errorRate() {
+            long total = latencyMicros.getTotalCount();
+            return total == 0 ? 1.0 : (double) errors / total;
+        }
+    }
+
+    Map<String, Result> run(List<Scenario> scenarios) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Map<String, AtomicLong> errors = new LinkedHashMap<>();
+        List<Thread> pacers = new ArrayList<>();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Scenario scenario : scenarios) {
+                Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+                AtomicLong scenarioErrors = new AtomicLong();
+                histograms.put(scenario.name(), histogram);
+                errors.put(scenario.name(), scenarioErrors);
+
+                long interval = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.requestsPerSecond());
+                pacers.add(Thread.ofVirtual().name("pacer-" + scenario.name()).start(() -> {
+                    for (long due = start; due < end; due += interval) {
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        long intended = due;
+                        requests.execute(() -> send(scenario, intended, measureFrom, histogram, scenarioErrors));
+                    }
+                }));
+            }
+            for (Thread pacer : pacers) {
+                pacer.join();
+            }
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> results.put(name, new Result(name, histogram, errors.get(name).get())));
+        return results;
+    }
+
+    private void send(Scenario scenario, long intended, long measureFrom, Histogram histogram, AtomicLong errors) {
+        boolean failed;
+        try {
+            HttpResponse<Void> response = client.send(scenario.request().get(), HttpResponse.BodyHandlers.discarding());
+            failed = response.statusCode() >= 400;
+        } catch (Exception e) {
+            failed = true;
+        }
+        if (intended < measureFrom) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+        histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (failed) {
+            errors.incrementAndGet();
+        }
+    }
+}
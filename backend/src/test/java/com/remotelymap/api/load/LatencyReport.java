@@ -0,0 +1,102 @@
+package com.remotelymap.api.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Prints per-scenario percentiles, writes them to {@code target/load-report}, and checks them
+ * against the committed budgets and, when given, a previous run.
+ */
+final class LatencyReport {
+    private final Map<String, FixedRateDriver.Result> results;
+
+    LatencyReport(Map<String, FixedRateDriver.Result> results) {
+        this.results = results;
+    }
+
+    String table() {
+        StringBuilder table = new StringBuilder(String.format("%n%-16s %9s %9s %9s %9s %9s %8s%n",
+            "scenario", "count", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+        results.values().forEach(result -> {
+            Histogram h = result.latencyMicros();
+            table.append(String.format("%-16s %9d %9.2f %9.2f %9.2f %9.2f %8d%n", result.name(), h.getTotalCount(),
+                millis(h, 50), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0, result.errors()));
+        });
+        return table.toString();
+    }
+
+    /**
+     * Writes one .hgrm percentile distribution per scenario, which HdrHistogram's plotter reads, and a
+     * summary.properties that a later run can take as its baseline.
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Properties summary = new Properties();
+        for (FixedRateDriver.Result result : results.values()) {
+            Histogram h = result.latencyMicros();
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(result.name() + ".hgrm")))) {
+                h.outputPercentileDistribution(out, 1000.0);
+            }
+            summary.setProperty(result.name() + ".p50Millis", String.valueOf(millis(h, 50)));
+            summary.setProperty(result.name() + ".p99Millis", String.valueOf(millis(h, 99)));
+            summary.setProperty(result.name() + ".p999Millis", String.valueOf(millis(h, 99.9)));
+            summary.setProperty(result.name() + ".errorRate", String.valueOf(result.errorRate()));
+        }
+        try (OutputStream out = Files.newOutputStream(directory.resolve("summary.properties"))) {
+            summary.store(out, "Load test summary, usable as -Dload.baseline");
+        }
+    }
+
+    /**
+     * @param budgets p99 budget per scenario ({@code <scenario>.p99Millis}) and {@code maxErrorRate}
+     * @param baseline summary of an earlier run, or null
+     * @param tolerance how much slower than the baseline p99 may get, e.g. 0.25 for 25%
+     * @return one line per violation; empty when the run passes
+     */
+    List<String> violations(Properties budgets, Properties baseline, double tolerance) {
+        List<String> violations = new ArrayList<>();
+        double maxErrorRate = Double.parseDouble(budgets.getProperty("maxErrorRate", "0.01"));
+        for (FixedRateDriver.Result result : results.values()) {
+            double p99 = millis(result.latencyMicros(), 99);
+            if (result.latencyMicros().getTotalCount() == 0) {
+                violations.add(result.name() + ": no requests were measured");
+                continue;
+            }
+            if (result.errorRate() > maxErrorRate) {
+                violations.add(String.format("%s: error rate %.4f above %.4f", result.name(), result.errorRate(), maxErrorRate));
+            }
+            String budget = budgets.getProperty(result.name() + ".p99Millis");
+            if (budget != null && p99 > Double.parseDouble(budget)) {
+                violations.add(String.format("%s: p99 %.2f ms above budget of %s ms", result.name(), p99, budget));
+            }
+            String previous = baseline == null ? null : baseline.getProperty(result.name() + ".p99Millis");
+            if (previous != null && p99 > Double.parseDouble(previous) * (1 + tolerance)) {
+                violations.add(String.format("%s: p99 %.2f ms regressed more than %.0f%% from baseline %s ms",
+                    result.name(), p99, tolerance * 100, previous));
+            }
+        }
+        return violations;
+    }
+
+    static Properties load(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        try (in) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
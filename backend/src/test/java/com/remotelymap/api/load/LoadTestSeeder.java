@@ -0,0 +1,47 @@
+package com.remotelymap.api.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the database the way V9999__dev_seed_data.sql does, at whatever scale a load run needs.
+ * Everything is generated inside Postgres, so a million rows take seconds, not a million round trips.
+ */
+final class LoadTestSeeder {
+
+    private LoadTestSeeder() {
+    }
+
+    /**
+     * Inserts {@code rows} places spread around Manhattan with one photo each, and {@code deletable}
+     * extra places that delete workloads may consume.
+     */
+    static void seed(JdbcTemplate jdbcTemplate, int rows, int deletable) {
+        jdbcTemplate.update("""
+            INSERT INTO places (name, description, address, rating, latitude, longitude, created_at, updated_at)
+            SELECT 'Place ' || i,
+                   'Seeded place number ' || i || ' with a description of typical length',
+                   i || ' ' || (ARRAY['Park Avenue', '5th Avenue', 'Broadway', 'Lexington Avenue'])[1 + i % 4] || ', New York, NY',
+                   round((1 + random() * 4)::numeric, 1),
+                   40.70 + random() * 0.12,
+                   -74.02 + random() * 0.10,
+                   CURRENT_TIMESTAMP - i * INTERVAL '1 second',
+                   CURRENT_TIMESTAMP - i * INTERVAL '1 second'
+            FROM generate_series(1, ?) AS i
+            """, rows);
+
+        jdbcTemplate.update("""
+            INSERT INTO place_photos (place_id, photo_url)
+            SELECT id, 'https://example.com/photos/' || LOWER(REPLACE(name, ' ', '-')) || '.jpg'
+            FROM places
+            """);
+
+        jdbcTemplate.update("""
+            INSERT INTO places (name, address)
+            SELECT 'Deletable ' || i, i || ' Temporary Street'
+            FROM generate_series(1, ?) AS i
+            """, deletable);
+
+        jdbcTemplate.execute("ANALYZE places");
+        jdbcTemplate.execute("ANALYZE place_photos");
+    }
+}
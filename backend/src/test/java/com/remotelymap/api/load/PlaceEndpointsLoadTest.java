@@ -0,0 +1,234 @@
+package com.remotelymap.api.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remotelymap.api.repository.PlaceCursor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a mixed read/write workload at fixed rates against every PlaceController endpoint and
+ * fails when a p99 exceeds its budget in {@code load/thresholds.properties}, or regresses from a
+ * baseline. Run with {@code mvn test -Pload-test}. Tunables, as system properties:
+ * <ul>
+ *   <li>{@code load.rows} seeded places (default 100000)</li>
+ *   <li>{@code load.seconds} measured duration, {@code load.warmupSeconds} unmeasured lead-in</li>
+ *   <li>{@code load.rateScale} multiplier for every scenario's rate</li>
+ *   <li>{@code load.baseline} summary.properties of an earlier run, {@code load.tolerance} allowed p99 growth</li>
+ * </ul>
+ * Percentile distributions and the summary land in {@code target/load-report}.
+ */
+@Tag("load")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PlaceEndpointsLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(PlaceEndpointsLoadTest.class);
+
+    private static final int ROWS = Integer.getInteger("load.rows", 100_000);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 60));
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmupSeconds", 15));
+    private static final double RATE_SCALE = Double.parseDouble(System.getProperty("load.rateScale", "1"));
+    private static final int BATCH_SIZE = 10;
+    private static final List<String> SEARCH_TERMS = List.of("broadway", "park avenue", "place 42", "lexingtn", "5th");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+        .withDatabaseName("test_db")
+        .withUsername("test")
+        .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.locations", () -> "classpath:db/migration/prod");
+        registry.add("logging.level.org.springframework", () -> "WARN");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String baseUrl;
+    private List<UUID> ids;
+    private List<PlaceCursor> cursors;
+    private final Queue<UUID> deletable = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void placeEndpointsStayWithinLatencyBudgets() throws Exception {
+        baseUrl = "http://localhost:" + port + "/api/places";
+        double totalSeconds = DURATION.plus(WARMUP).toSeconds();
+        List<FixedRateDriver.Scenario> scenarios = scenarios();
+        int needed = (int) Math.ceil(totalSeconds * scenarios.stream()
+            .filter(scenario -> scenario.name().contains("delete"))
+            .mapToDouble(scenario -> scenario.requestsPerSecond() * (scenario.name().startsWith("batch") ? BATCH_SIZE : 1))
+            .sum()) + 100;
+
+        long seedStart = System.nanoTime();
+        LoadTestSeeder.seed(jdbcTemplate, ROWS, needed);
+        log.info("Seeded {} places in {} ms", ROWS + needed, (System.nanoTime() - seedStart) / 1_000_000);
+        ids = jdbcTemplate.queryForList("SELECT id FROM places WHERE name LIKE 'Place %' ORDER BY random() LIMIT 10000", UUID.class);
+        cursors = jdbcTemplate.query("SELECT created_at, id FROM places ORDER BY random() LIMIT 1000",
+            (rs, rowNum) -> new PlaceCursor(rs.getObject(1, OffsetDateTime.class), rs.getObject(2, UUID.class)));
+        deletable.addAll(jdbcTemplate.queryForList("SELECT id FROM places WHERE name LIKE 'Deletable %'", UUID.class));
+
+        Map<String, FixedRateDriver.Result> results = new FixedRateDriver(WARMUP, DURATION).run(scenarios);
+
+        LatencyReport report = new LatencyReport(results);
+        log.info(report.table());
+        report.write(Path.of("target", "load-report"));
+
+        Properties budgets = LatencyReport.load(getClass().getResourceAsStream("/load/thresholds.properties"));
+        String baselinePath = System.getProperty("load.baseline");
+        Properties baseline = baselinePath == null ? null : LatencyReport.load(Files.newInputStream(Path.of(baselinePath)));
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+        assertThat(report.violations(budgets, baseline, tolerance)).isEmpty();
+    }
+
+    private List<FixedRateDriver.Scenario> scenarios() {
+        return List.of(
+            scenario("list-page", 50, () -> get("?size=20&page=" + random(100))),
+            scenario("list-cursor", 20, () -> get("?size=20&after=" + pick(cursors).encode())),
+            scenario("nearby", 20, () -> get("/nearby?radius=2000&lat=" + (40.70 + random(120) / 1000.0)
+                + "&lng=" + (-74.02 + random(100) / 1000.0))),
+            scenario("search", 20, () -> get("/search?q=" + URLEncoder.encode(pick(SEARCH_TERMS), StandardCharsets.UTF_8))),
+            scenario("get-by-id", 100, () -> get("/" + pick(ids))),
+            scenario("create", 10, () -> json("POST", "", place("Created"))),
+            scenario("update", 10, () -> json("PUT", "/" + pick(ids), place("Updated"))),
+            scenario("delete", 5, () -> request("/" + next()).DELETE().build()),
+            scenario("batch-create", 1, () -> json("POST", "/batch", places("Batch created", null))),
+            scenario("batch-update", 1, () -> json("PUT", "/batch", places("Batch updated", distinctIds()))),
+            scenario("batch-delete", 1, () -> {
+                List<UUID> batch = new ArrayList<>();
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    batch.add(next());
+                }
+                return json("DELETE", "/batch", batch);
+            }),
+            scenario("upload-photo", 2, () -> multipart("/" + pick(ids) + "/photos"))
+        );
+    }
+
+    private static FixedRateDriver.Scenario scenario(String name, double requestsPerSecond,
+                                                     Supplier<HttpRequest> request) {
+        return new FixedRateDriver.Scenario(name, requestsPerSecond * RATE_SCALE, request);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60));
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, Object body) {
+        try {
+            return request(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest multipart(String path) {
+        String boundary = "load-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+            + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(new byte[32 * 1024]);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return request(path)
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+            .build();
+    }
+
+    private static Map<String, Object> place(String prefix) {
+        int n = random(1_000_000);
+        return Map.of(
+            "name", prefix + " " + n,
+            "description", "Written by the load test",
+            "address", n + " Load Street",
+            "rating", 4.0,
+            "latitude", 40.75,
+            "longitude", -73.98);
+    }
+
+    private static List<Map<String, Object>> places(String prefix, List<UUID> ids) {
+        List<Map<String, Object>> places = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Map<String, Object> place = new HashMap<>(place(prefix));
+            if (ids != null) {
+                place.put("id", ids.get(i));
+            }
+            places.add(place);
+        }
+        return places;
+    }
+
+    private List<UUID> distinctIds() {
+        int offset = random(ids.size() - BATCH_SIZE);
+        return ids.subList(offset, offset + BATCH_SIZE);
+    }
+
+    private UUID next() {
+        UUID id = deletable.poll();
+        if (id == null) {
+            throw new IllegalStateException("Ran out of deletable places");
+        }
+        return id;
+    }
+
+    private static <T> T pick(List<T> items) {
+        return items.get(random(items.size()));
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+}
@@ -0,0 +1,175 @@
+package com.remotelymap.api.load;
+
+import com.remotelymap.api.ApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same closed-loop workload against the app on platform threads and on virtual threads
+ * and logs throughput, latency and thread counts side by side. Run with {@code mvn test -Pload-test};
+ * {@code -Dload.clients} and {@code -Dload.seconds} scale it.
+ */
+@Tag("load")
+@Testcontainers
+class ThreadingModeBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeBenchmarkTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 1_000);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 20));
+    private static final int SEED_ROWS = 5_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+        .withDatabaseName("test_db")
+        .withUsername("test")
+        .withPassword("test");
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("mode      requests   req/s    p50 ms   p99 ms  max ms   errors  peak threads");
+        log.info(platform.format("platform"));
+        log.info(virtual.format("virtual"));
+
+        // The logged table is the result; this only catches a run that never got going
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ApiApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "spring.flyway.locations=classpath:db/migration/prod",
+                "places.photos.root=target/load-photos",
+                "logging.level.root=WARN");
+        if (virtualThreads) {
+            builder.profiles("virtual-threads");
+        }
+
+        try (ConfigurableApplicationContext app = builder.run()) {
+            List<UUID> ids = seed(app.getBean(JdbcTemplate.class));
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/api/places";
+            return drive(baseUrl, ids);
+        }
+    }
+
+    private static List<UUID> seed(JdbcTemplate jdbcTemplate) {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM places", Long.class);
+        if (existing == null || existing < SEED_ROWS) {
+            jdbcTemplate.update("""
+                INSERT INTO places (name, description, address, rating)
+                SELECT 'Load Place ' || i, 'Seeded for the threading benchmark', i || ' Load St', (i % 50) / 10.0
+                FROM generate_series(1, ?) AS i
+                """, SEED_ROWS);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM places LIMIT 1000", UUID.class);
+    }
+
+    private static Result drive(String baseUrl, List<UUID> ids) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        long started = System.nanoTime();
+
+        // Clients are virtual threads too, so the load generator itself never runs out of threads
+        List<Future<long[]>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    int i = clientIndex;
+                    while (System.nanoTime() < deadline) {
+                        // Alternate a page read, which always reaches the database, with a lookup by id
+                        URI uri = i++ % 2 == 0
+                            ? URI.create(baseUrl + "?size=20&page=" + (i % 50))
+                            : URI.create(baseUrl + "/" + ids.get(i % ids.size()));
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build(),
+                                HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] all = clients.stream().map(ThreadingModeBenchmarkTest::join).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length, all.length / seconds, percentile(all, 0.50), percentile(all, 0.99),
+            all.length == 0 ? 0 : all[all.length - 1] / 1e6, errors.get(), threads.getPeakThreadCount());
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(long requests, double throughput, double p50, double p99, double max, int errors,
+                          int peakThreads) {
+        String format(String mode) {
+            return String.format("%-8s %9d %8.0f %9.1f %8.1f %7.0f %8d %13d",
+                mode, requests, throughput, p50, p99, max, errors, peakThreads);
+        }
+    }
+}
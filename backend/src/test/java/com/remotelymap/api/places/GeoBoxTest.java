@@ -0,0 +1,34 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.repository.GeoBox;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoBoxTest {
+
+    @Test
+    void shouldUseTheZoomsGridWhileTheBoxSpansFewCells() {
+        GeoBox paris = new GeoBox(48.80, 2.20, 48.90, 2.45);
+
+        assertThat(paris.gridSize(12, 4, 16)).isEqualTo(4L << 12);
+    }
+
+    @Test
+    void shouldCoarsenTheGridWhenTheBoxIsLargeForItsZoom() {
+        GeoBox world = new GeoBox(-85, -180, 85, 180);
+
+        assertThat(world.gridSize(0, 4, 16)).isEqualTo(4);
+        // Asked for at zoom 15, the whole world still only gets 16 cells each way
+        assertThat(world.gridSize(15, 4, 16)).isEqualTo(16);
+    }
+
+    @Test
+    void shouldMeasureBoxesAcrossTheAntimeridianTheShortWayRound() {
+        GeoBox pacific = new GeoBox(-20, 170, -10, -170);
+        GeoBox sameWidth = new GeoBox(-20, -10, -10, 10);
+
+        assertThat(pacific.crossesAntimeridian()).isTrue();
+        assertThat(pacific.gridSize(8, 4, 16)).isEqualTo(sameWidth.gridSize(8, 4, 16));
+    }
+}
@@ -1,16 +1,28 @@
 package com.remotelymap.api.places;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.remotelymap.api.config.CacheConfig;
+import com.remotelymap.api.dto.BatchItemResult;
+import com.remotelymap.api.dto.BatchItemStatus;
+import com.remotelymap.api.dto.BatchResponse;
+import com.remotelymap.api.dto.PhotoResponse;
 import com.remotelymap.api.dto.PhotoUploadResponse;
 import com.remotelymap.api.dto.PlaceRequest;
 import com.remotelymap.api.dto.PlaceResponse;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
@@ -18,18 +30,36 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @Testcontainers
 class PlaceControllerIntegrationTest {
     private static final Logger log = LoggerFactory.getLogger(PlaceControllerIntegrationTest.class);
@@ -49,6 +79,9 @@ class PlaceControllerIntegrationTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         log.info("Configuring database properties for test");
@@ -163,6 +196,277 @@ class PlaceControllerIntegrationTest {
             });
     }
 
+    @Test
+    void shouldNotServeStaleCachedPlaceAfterUpdate() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Cached Place");
+        request.setAddress("Cache St");
+        request.setRating(3.0);
+
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        PlaceResponse createdPlace = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            PlaceResponse.class
+        );
+
+        // Two reads: the first fills the cache, the second is served from it
+        mockMvc.perform(get("/api/places/" + createdPlace.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/places/" + createdPlace.getId())).andExpect(status().isOk());
+
+        request.setName("Renamed Place");
+        mockMvc.perform(put("/api/places/" + createdPlace.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        MvcResult getResult = mockMvc.perform(get("/api/places/" + createdPlace.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        PlaceResponse retrievedPlace = objectMapper.readValue(
+            getResult.getResponse().getContentAsString(),
+            PlaceResponse.class
+        );
+        assertThat(retrievedPlace.getName()).isEqualTo("Renamed Place");
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                .param("tag", "cache:places")
+                .param("tag", "result:hit"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldExposeLayerTimingsForPrometheus() throws Exception {
+        mockMvc.perform(get("/api/places").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("places_service_seconds_bucket{class=\"PlaceService\",exception=\"none\",method=\"getAllPlaces\"")
+                .contains("places_repository_seconds_bucket{class=\"JdbcPlaceRepository\",exception=\"none\",method=\"findAll\"")
+                .contains("places_repository_rows_count{class=\"JdbcPlaceRepository\",method=\"findAll\"")
+                .contains("http_server_response_size_bytes_count{method=\"GET\",status=\"200\",uri=\"/api/places\"")
+                .contains("hikaricp_connections_acquire_seconds_bucket");
+    }
+
+    @Test
+    void shouldAnswerRevalidationOfAPlaceWithNotModified() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Revalidated Place");
+        request.setAddress("ETag St");
+        request.setRating(4.0);
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+        MvcResult first = mockMvc.perform(get("/api/places/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo(createResult.getResponse().getHeader(HttpHeaders.ETAG)).doesNotStartWith("W/");
+
+        MvcResult notModified = mockMvc.perform(get("/api/places/" + id).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andReturn();
+        assertThat(notModified.getResponse().getContentAsByteArray()).isEmpty();
+
+        request.setName("Revalidated Place, renamed");
+        mockMvc.perform(put("/api/places/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        MvcResult changed = mockMvc.perform(get("/api/places/" + id).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+        assertThat(changed.getResponse().getContentAsString()).contains("renamed");
+    }
+
+    @Test
+    void shouldAnswerRevalidationOfAPageWithNotModified() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Paged Place");
+        request.setAddress("Page St");
+        request.setRating(3.0);
+        mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        String eTag = mockMvc.perform(get("/api/places").param("size", "5").param("includeTotal", "exact"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        mockMvc.perform(get("/api/places").param("size", "5").param("includeTotal", "exact")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/places").param("size", "5").param("includeTotal", "exact")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldAnswerInCborWhenAskedAndJsonOtherwise() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Binary Place");
+        request.setAddress("Binary St");
+        request.setRating(4.0);
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        PlaceResponse created = objectMapper.readValue(createResult.getResponse().getContentAsString(), PlaceResponse.class);
+
+        String jsonTag = mockMvc.perform(get("/api/places/{id}", created.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().stringValues(HttpHeaders.VARY, Matchers.hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Strong tags promise identical bytes, so each format of a version has its own
+        String cborTag = mockMvc.perform(get("/api/places/{id}", created.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cborTag).isEqualTo(jsonTag.substring(0, jsonTag.length() - 1) + "-cbor\"");
+        mockMvc.perform(get("/api/places/{id}", created.getId()).accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/places/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, cborTag)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        byte[] cbor = mockMvc.perform(get("/api/places").param("size", "5").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode page = new CBORMapper().readTree(cbor);
+        assertThat(page.get("content").findValuesAsText("name")).contains("Binary Place");
+        assertThat(page.get("content").get(0).get("createdAt").isTextual()).isTrue();
+    }
+
+    @Test
+    void shouldReuseSerializedBodiesOnlyWhileTheyAreCurrent() throws Exception {
+        String id = null;
+        for (int i = 0; i < 10; i++) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName("Repeated " + i);
+            request.setDescription("Read far more often than it is written, so its JSON is kept around");
+            request.setAddress(i + " Cache St");
+            request.setRating(4.0);
+            MvcResult created = mockMvc.perform(post("/api/places")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+        }
+        String first = mockMvc.perform(get("/api/places/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(mockMvc.perform(get("/api/places/" + id)).andReturn().getResponse().getContentAsString())
+            .isEqualTo(first);
+
+        PlaceRequest rename = new PlaceRequest();
+        rename.setName("Renamed");
+        rename.setAddress("9 Cache St");
+        mockMvc.perform(put("/api/places/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rename)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/places/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("Renamed"));
+
+        // Pages above the compression threshold are kept gzipped as well
+        String page = mockMvc.perform(get("/api/places"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Renamed"))
+                .andReturn().getResponse().getContentAsString();
+        MvcResult gzipped = mockMvc.perform(get("/api/places").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(gunzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(page);
+        }
+    }
+
+    @Test
+    void shouldOnlyUpdateWhenIfMatchNamesTheCurrentVersion() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Contended Place");
+        request.setAddress("Lock St");
+        request.setRating(4.0);
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+        String original = createResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        request.setName("First writer");
+        String updated = mockMvc.perform(put("/api/places/" + id)
+                .header(HttpHeaders.IF_MATCH, original)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updated).isNotEqualTo(original);
+
+        request.setName("Second writer");
+        mockMvc.perform(put("/api/places/" + id)
+                .header(HttpHeaders.IF_MATCH, original)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/places/" + id)
+                .header(HttpHeaders.IF_MATCH, "W/" + updated)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        MvcResult current = mockMvc.perform(get("/api/places/" + id))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(current.getResponse().getContentAsString()).contains("First writer");
+
+        mockMvc.perform(put("/api/places/" + id)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/places/" + UUID.randomUUID())
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldDeletePlace() throws Exception {
         // Create place
@@ -242,6 +546,769 @@ class PlaceControllerIntegrationTest {
             });
     }
 
+    @Test
+    void shouldPageThroughPlacesWithCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName("Cursor Place " + i);
+            request.setAddress("Cursor St " + i);
+            request.setRating(4.0);
+
+            mockMvc.perform(post("/api/places")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult firstResult = mockMvc.perform(get("/api/places").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode firstPage = objectMapper.readTree(firstResult.getResponse().getContentAsString());
+        assertThat(firstPage.get("content")).hasSize(2);
+        assertThat(firstPage.get("nextCursor").isTextual()).isTrue();
+
+        Set<String> seenIds = new HashSet<>();
+        firstPage.get("content").forEach(place -> seenIds.add(place.get("id").asText()));
+
+        String cursor = firstPage.get("nextCursor").asText();
+        int pages = 1;
+        while (cursor != null) {
+            MvcResult pageResult = mockMvc.perform(get("/api/places")
+                    .param("size", "2")
+                    .param("after", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(pageResult.getResponse().getContentAsString());
+            page.get("content").forEach(place -> assertThat(seenIds.add(place.get("id").asText())).isTrue());
+            assertThat(page.get("hasPrevious").asBoolean()).isTrue();
+            assertThat(page.get("page").isNull()).isTrue();
+            assertThat(page.get("totalElements").isNull()).isTrue();
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        }
+
+        assertThat(seenIds).hasSize(5);
+        assertThat(pages).isEqualTo(3);
+
+        MvcResult countedResult = mockMvc.perform(get("/api/places")
+                .param("size", "2")
+                .param("after", firstPage.get("nextCursor").asText())
+                .param("includeTotal", "exact"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode countedPage = objectMapper.readTree(countedResult.getResponse().getContentAsString());
+        assertThat(countedPage.get("totalElements").asLong()).isEqualTo(5);
+        assertThat(countedPage.get("totalKind").asText()).isEqualTo("EXACT");
+        assertThat(countedPage.get("totalPages").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldIncludePhotosOfEveryPlaceOnAPage() throws Exception {
+        List<PlaceResponse> created = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName("Gallery Place " + i);
+            request.setAddress("Gallery St " + i);
+            request.setRating(4.0);
+
+            MvcResult createResult = mockMvc.perform(post("/api/places")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            created.add(objectMapper.readValue(createResult.getResponse().getContentAsString(), PlaceResponse.class));
+        }
+
+        MvcResult uploadResult = mockMvc.perform(multipart("/api/places/" + created.get(0).getId() + "/photos")
+                .file(new MockMultipartFile("file", "photo.jpg", MediaType.IMAGE_JPEG_VALUE, "jpeg".getBytes())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String photoUrl = objectMapper.readValue(
+            uploadResult.getResponse().getContentAsString(),
+            PhotoUploadResponse.class
+        ).getPhotoUrl();
+
+        MvcResult pageResult = mockMvc.perform(get("/api/places").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode content = objectMapper.readTree(pageResult.getResponse().getContentAsString()).get("content");
+        Map<String, JsonNode> photosById = new HashMap<>();
+        content.forEach(place -> photosById.put(place.get("id").asText(), place.get("photos")));
+
+        assertThat(photosById.get(created.get(0).getId().toString())).hasSize(1);
+        assertThat(photosById.get(created.get(0).getId().toString()).get(0).get("url").asText()).isEqualTo(photoUrl);
+        assertThat(photosById.get(created.get(1).getId().toString())).isEmpty();
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/places").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectOutOfRangePageOrSize() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName("Bounded Place " + i);
+            request.setAddress("Bounded St " + i);
+            request.setRating(4.0);
+
+            mockMvc.perform(post("/api/places")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/places").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/places").param("size", "101"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/places").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+
+        MvcResult firstResult = mockMvc.perform(get("/api/places").param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = objectMapper.readTree(firstResult.getResponse().getContentAsString()).get("nextCursor").asText();
+        mockMvc.perform(get("/api/places").param("after", cursor).param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/places").param("after", cursor).param("size", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReportWhichKindOfTotalWasReturned() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Counted Place");
+        request.setAddress("Count St");
+        request.setRating(3.5);
+
+        mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        MvcResult exactResult = mockMvc.perform(get("/api/places").param("includeTotal", "exact"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode exactPage = objectMapper.readTree(exactResult.getResponse().getContentAsString());
+        assertThat(exactPage.get("totalKind").asText()).isEqualTo("EXACT");
+        assertThat(exactPage.get("totalElements").asLong()).isEqualTo(1);
+
+        MvcResult defaultResult = mockMvc.perform(get("/api/places"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode defaultPage = objectMapper.readTree(defaultResult.getResponse().getContentAsString());
+        assertThat(defaultPage.get("totalKind").asText()).isEqualTo("CACHED");
+
+        mockMvc.perform(get("/api/places").param("includeTotal", "approximately"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldLookUpManyPlacesInRequestOrder() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (String name : List.of("First", "Second", "Third")) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName(name);
+            request.setAddress(name + " St");
+            request.setRating(3.5);
+            MvcResult created = mockMvc.perform(post("/api/places")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids.add(objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText());
+        }
+        // One of them is cached already, the others are read together
+        mockMvc.perform(get("/api/places/" + ids.get(1))).andExpect(status().isOk());
+        String unknown = UUID.randomUUID().toString();
+
+        MvcResult result = mockMvc.perform(post("/api/places/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(ids.get(2), unknown, ids.get(1), ids.get(0), ids.get(2)))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode lookup = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(lookup.get("places")).extracting(place -> place.get("name").asText())
+            .containsExactly("Third", "Second", "First");
+        assertThat(lookup.get("missing")).extracting(JsonNode::asText).containsExactly(unknown);
+    }
+
+    @Test
+    void shouldRejectAnEmptyLookup() throws Exception {
+        mockMvc.perform(post("/api/places/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnOnlyTheRequestedFields() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Corner Cafe");
+        request.setDescription("Espresso and a long description nobody needs in a list");
+        request.setAddress("1 Corner St");
+        request.setRating(4.0);
+        MvcResult created = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        MvcResult page = mockMvc.perform(get("/api/places").param("fields", "name,rating"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode listed = objectMapper.readTree(page.getResponse().getContentAsString()).get("content").get(0);
+        assertThat(listed.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "name", "rating");
+        assertThat(listed.get("name").asText()).isEqualTo("Corner Cafe");
+
+        MvcResult found = mockMvc.perform(get("/api/places/search").param("q", "corner").param("fields", "address"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode hit = objectMapper.readTree(found.getResponse().getContentAsString()).get("content").get(0);
+        assertThat(hit.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "address");
+
+        MvcResult single = mockMvc.perform(get("/api/places/" + id).param("fields", "description"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode place = objectMapper.readTree(single.getResponse().getContentAsString());
+        assertThat(place.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "description");
+
+        // Without fields, the cached place is written whole
+        MvcResult whole = mockMvc.perform(get("/api/places/" + id))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(objectMapper.readTree(whole.getResponse().getContentAsString()).has("photos")).isTrue();
+    }
+
+    @Test
+    void shouldRejectUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/places").param("fields", "name,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldFindNearbyPlacesNearestFirst() throws Exception {
+        createPlaceAt("Eiffel Tower", 48.8584, 2.2945);
+        createPlaceAt("Louvre", 48.8606, 2.3376);
+        createPlaceAt("Versailles", 48.8049, 2.1204);
+
+        MvcResult result = mockMvc.perform(get("/api/places/nearby")
+                .param("lat", "48.8600")
+                .param("lng", "2.3300")
+                .param("radius", "5000"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode places = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(places).extracting(place -> place.get("name").asText())
+            .containsExactly("Louvre", "Eiffel Tower");
+    }
+
+    @Test
+    void shouldRejectOutOfRangeCoordinates() throws Exception {
+        mockMvc.perform(get("/api/places/nearby")
+                .param("lat", "91")
+                .param("lng", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnPlacesInAViewportAcrossTheAntimeridian() throws Exception {
+        createPlaceAt("Suva", -18.1416, 178.4419);
+        createPlaceAt("Apia", -13.8506, -171.7513);
+        createPlaceAt("Honolulu", 21.3069, -157.8583);
+
+        MvcResult result = mockMvc.perform(get("/api/places/viewport")
+                .param("minLat", "-20").param("minLng", "170")
+                .param("maxLat", "-10").param("maxLng", "-170")
+                .param("zoom", "5"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode viewport = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(viewport.get("clustered").asBoolean()).isFalse();
+        assertThat(viewport.get("clusters")).isEmpty();
+        assertThat(viewport.get("places")).extracting(place -> place.get("name").asText())
+            .containsExactlyInAnyOrder("Suva", "Apia");
+    }
+
+    @Test
+    void shouldClusterDenseViewports() throws Exception {
+        jdbcTemplate.update("""
+            INSERT INTO places (name, address, latitude, longitude)
+            SELECT 'Paris ' || i, 'Rue ' || i, 48.85 + (i % 10) * 0.001, 2.35 + (i / 10) * 0.001
+            FROM generate_series(1, 150) i
+            """);
+        jdbcTemplate.update("""
+            INSERT INTO places (name, address, latitude, longitude)
+            SELECT 'Berlin ' || i, 'Strasse ' || i, 52.52 + (i % 10) * 0.001, 13.40 + (i / 10) * 0.001
+            FROM generate_series(1, 100) i
+            """);
+
+        MvcResult result = mockMvc.perform(get("/api/places/viewport")
+                .param("minLat", "40").param("minLng", "-10")
+                .param("maxLat", "60").param("maxLng", "30")
+                .param("zoom", "4"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode viewport = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(viewport.get("clustered").asBoolean()).isTrue();
+        assertThat(viewport.get("places")).isEmpty();
+        JsonNode clusters = viewport.get("clusters");
+        assertThat(clusters.size()).isBetween(2, 17 * 17);
+        long total = 0;
+        for (JsonNode cluster : clusters) {
+            total += cluster.get("count").asLong();
+            assertThat(cluster.get("latitude").asDouble())
+                .isBetween(cluster.get("minLatitude").asDouble(), cluster.get("maxLatitude").asDouble());
+            assertThat(cluster.get("longitude").asDouble())
+                .isBetween(cluster.get("minLongitude").asDouble(), cluster.get("maxLongitude").asDouble());
+        }
+        assertThat(total).isEqualTo(250);
+    }
+
+    @Test
+    void shouldRejectAnUpsideDownViewport() throws Exception {
+        mockMvc.perform(get("/api/places/viewport")
+                .param("minLat", "10").param("minLng", "0")
+                .param("maxLat", "-10").param("maxLng", "10")
+                .param("zoom", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldSyncOnlyWhatChangedSinceTheToken() throws Exception {
+        createPlaceAt("Kept Place", 10, 10);
+        createPlaceAt("Edited Place", 11, 11);
+        createPlaceAt("Removed Place", 12, 12);
+
+        // A client with nothing pages through everything
+        Map<String, String> idsByName = new HashMap<>();
+        String token = null;
+        boolean hasMore = true;
+        int pages = 0;
+        while (hasMore) {
+            MockHttpServletRequestBuilder sync = get("/api/places/sync").param("size", "2");
+            if (token != null) {
+                sync.param("since", token);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(sync)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("changed").forEach(place -> idsByName.put(place.get("name").asText(), place.get("id").asText()));
+            token = page.get("nextToken").asText();
+            hasMore = page.get("hasMore").asBoolean();
+            pages++;
+        }
+        assertThat(idsByName).containsOnlyKeys("Kept Place", "Edited Place", "Removed Place");
+        assertThat(pages).isEqualTo(2);
+
+        PlaceRequest edit = new PlaceRequest();
+        edit.setName("Edited Place");
+        edit.setAddress("Somewhere else");
+        edit.setRating(2.0);
+        mockMvc.perform(put("/api/places/" + idsByName.get("Edited Place"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(edit)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/places/" + idsByName.get("Removed Place")))
+                .andExpect(status().isNoContent());
+
+        JsonNode delta = objectMapper.readTree(mockMvc.perform(get("/api/places/sync").param("since", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(delta.get("changed")).extracting(place -> place.get("address").asText())
+            .containsExactly("Somewhere else");
+        assertThat(delta.get("deleted")).extracting(JsonNode::asText)
+            .containsExactly(idsByName.get("Removed Place"));
+        assertThat(delta.get("hasMore").asBoolean()).isFalse();
+
+        // Once the tombstones it needs are purged, the token is no good
+        jdbcTemplate.update("UPDATE place_sync_horizon SET purged_through = 9223372036854775807");
+        try {
+            mockMvc.perform(get("/api/places/sync").param("since", delta.get("nextToken").asText()))
+                    .andExpect(status().isGone());
+        } finally {
+            jdbcTemplate.update("UPDATE place_sync_horizon SET purged_through = 0");
+        }
+    }
+
+    @Test
+    void shouldRejectAMalformedSyncToken() throws Exception {
+        mockMvc.perform(get("/api/places/sync").param("since", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldSearchByPrefixAndToleratingTypos() throws Exception {
+        createPlaceAt("Rijksmuseum", 52.3600, 4.8852);
+        createPlaceAt("Vondelpark", 52.3580, 4.8686);
+        createPlaceAt("Anne Frank House", 52.3752, 4.8840);
+
+        MvcResult prefixResult = mockMvc.perform(get("/api/places/search").param("q", "rijks"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode prefixHits = objectMapper.readTree(prefixResult.getResponse().getContentAsString()).get("content");
+        assertThat(prefixHits).extracting(place -> place.get("name").asText()).containsExactly("Rijksmuseum");
+
+        MvcResult typoResult = mockMvc.perform(get("/api/places/search").param("q", "Vondelparc"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode typoHits = objectMapper.readTree(typoResult.getResponse().getContentAsString()).get("content");
+        assertThat(typoHits).extracting(place -> place.get("name").asText()).first().isEqualTo("Vondelpark");
+    }
+
+    @Test
+    void shouldPageThroughSearchResultsWithCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            createPlaceAt("Canal Cruise " + i, 52.37, 4.89);
+        }
+
+        Set<String> seenIds = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/places/search").param("q", "canal cruise").param("size", "2");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("content").forEach(place -> assertThat(seenIds.add(place.get("id").asText())).isTrue());
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seenIds).hasSize(3);
+        assertThat(pages).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectBlankSearch() throws Exception {
+        mockMvc.perform(get("/api/places/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectSearchWithoutAWordLongEnoughToPrefixMatch() throws Exception {
+        mockMvc.perform(get("/api/places/search").param("q", "a b"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/places/search").param("q", "an ab-c"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void createPlaceAt(String name, double latitude, double longitude) throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName(name);
+        request.setAddress(name + " address");
+        request.setRating(4.0);
+        request.setLatitude(latitude);
+        request.setLongitude(longitude);
+
+        mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldCreateUpdateAndDeletePlacesInBulk() throws Exception {
+        List<PlaceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName("Bulk Place " + i);
+            request.setAddress("Bulk St " + i);
+            request.setRating(3.0 + i);
+            requests.add(request);
+        }
+
+        MvcResult createResult = mockMvc.perform(post("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        BatchResponse created = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            BatchResponse.class
+        );
+        assertThat(created.getSucceeded()).isEqualTo(3);
+        assertThat(created.getResults()).extracting(result -> result.getPlace().getName())
+            .containsExactly("Bulk Place 0", "Bulk Place 1", "Bulk Place 2");
+
+        UUID firstId = created.getResults().get(0).getId();
+        UUID missingId = UUID.randomUUID();
+        List<Map<String, Object>> updates = List.of(
+            Map.of("id", missingId, "name", "Ghost", "address", "Nowhere"),
+            Map.of("id", firstId, "name", "Renamed Bulk Place", "address", "Bulk St 0", "rating", 5.0)
+        );
+
+        MvcResult updateResult = mockMvc.perform(put("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isOk())
+                .andReturn();
+        BatchResponse updated = objectMapper.readValue(
+            updateResult.getResponse().getContentAsString(),
+            BatchResponse.class
+        );
+        assertThat(updated.getResults()).extracting(BatchItemResult::getStatus)
+            .containsExactly(BatchItemStatus.NOT_FOUND, BatchItemStatus.UPDATED);
+        assertThat(updated.getResults().get(1).getPlace().getName()).isEqualTo("Renamed Bulk Place");
+
+        List<UUID> ids = List.of(firstId, missingId);
+        MvcResult deleteResult = mockMvc.perform(delete("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk())
+                .andReturn();
+        BatchResponse deleted = objectMapper.readValue(
+            deleteResult.getResponse().getContentAsString(),
+            BatchResponse.class
+        );
+        assertThat(deleted.getResults()).extracting(BatchItemResult::getStatus)
+            .containsExactly(BatchItemStatus.DELETED, BatchItemStatus.NOT_FOUND);
+
+        mockMvc.perform(get("/api/places/" + firstId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldEvictOnlyTheChangedPlacesOnBulkWrites() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            PlaceRequest request = new PlaceRequest();
+            request.setName("Cached Bulk Place " + i);
+            request.setAddress("Cached Bulk St " + i);
+            request.setRating(4.0);
+
+            MvcResult createResult = mockMvc.perform(post("/api/places")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            UUID id = objectMapper.readValue(createResult.getResponse().getContentAsString(), PlaceResponse.class).getId();
+            mockMvc.perform(get("/api/places/" + id)).andExpect(status().isOk());
+            ids.add(id);
+        }
+        Cache places = cacheManager.getCache(CacheConfig.PLACES_CACHE);
+        assertThat(places.get(ids.get(0))).isNotNull();
+        assertThat(places.get(ids.get(1))).isNotNull();
+
+        mockMvc.perform(put("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(
+                    Map.of("id", ids.get(0), "name", "Renamed Cached Bulk Place", "address", "Cached Bulk St 0")))))
+                .andExpect(status().isOk());
+        assertThat(places.get(ids.get(0))).isNull();
+        assertThat(places.get(ids.get(1))).isNotNull();
+        mockMvc.perform(get("/api/places/" + ids.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Cached Bulk Place"));
+
+        mockMvc.perform(delete("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(ids.get(1)))))
+                .andExpect(status().isOk());
+        assertThat(places.get(ids.get(0))).isNotNull();
+        assertThat(places.get(ids.get(1))).isNull();
+        mockMvc.perform(get("/api/places/" + ids.get(1)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldRejectInvalidItemInBulkCreate() throws Exception {
+        PlaceRequest valid = new PlaceRequest();
+        valid.setName("Valid");
+        valid.setAddress("Valid St");
+        PlaceRequest invalid = new PlaceRequest();
+        invalid.setName("No Address");
+
+        mockMvc.perform(post("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(valid, invalid))))
+                .andExpect(status().isBadRequest());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM places", Long.class)).isZero();
+    }
+
+    @Test
+    void shouldServeUploadedPhotoWithRangeAndConditionalSupport() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Photogenic Place");
+        request.setAddress("Shutter St");
+        request.setRating(4.0);
+
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        PlaceResponse createdPlace = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            PlaceResponse.class
+        );
+
+        byte[] content = "0123456789 pretend this is a jpeg".getBytes();
+        MvcResult uploadResult = mockMvc.perform(multipart("/api/places/" + createdPlace.getId() + "/photos")
+                .file(new MockMultipartFile("file", "photo.jpg", MediaType.IMAGE_JPEG_VALUE, content)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String photoUrl = objectMapper.readValue(
+            uploadResult.getResponse().getContentAsString(),
+            PhotoUploadResponse.class
+        ).getPhotoUrl();
+
+        MvcResult download = mockMvc.perform(get(photoUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE))
+                .andReturn();
+        assertThat(download.getResponse().getContentAsByteArray()).isEqualTo(content);
+        String etag = download.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get(photoUrl).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        MvcResult range = mockMvc.perform(get(photoUrl).header(HttpHeaders.RANGE, "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+        assertThat(range.getResponse().getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void shouldRenderThumbnailsInBackground() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Panoramic Place");
+        request.setAddress("Wide Angle Rd");
+        request.setRating(4.5);
+
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        PlaceResponse createdPlace = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            PlaceResponse.class
+        );
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB), "png", png);
+        mockMvc.perform(multipart("/api/places/" + createdPlace.getId() + "/photos")
+                .file(new MockMultipartFile("file", "wide.png", MediaType.IMAGE_PNG_VALUE, png.toByteArray())))
+                .andExpect(status().isCreated());
+
+        // Rendering happens after the upload has answered, so wait for the variants to show up
+        PhotoResponse photo = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            MvcResult getResult = mockMvc.perform(get("/api/places/" + createdPlace.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            PlaceResponse place = objectMapper.readValue(getResult.getResponse().getContentAsString(), PlaceResponse.class);
+            assertThat(place.getPhotos()).hasSize(1);
+            photo = place.getPhotos().get(0);
+            if (photo.getThumbnails().size() == 2) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(photo.getThumbnails()).containsOnlyKeys("w200", "w800");
+
+        MvcResult thumbnail = mockMvc.perform(get(photo.getThumbnails().get("w200")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE))
+                .andReturn();
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.getResponse().getContentAsByteArray()));
+        assertThat(decoded.getWidth()).isEqualTo(200);
+        assertThat(decoded.getHeight()).isEqualTo(100);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM photo_derivative_jobs WHERE photo_id = ?",
+            Long.class, photo.getId())).isZero();
+    }
+
+    @Test
+    void shouldStreamChangesToSubscribers() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/places/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitStreamContaining(stream, "event:ready");
+
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Announced Place");
+        request.setAddress("Broadcast Ave");
+        request.setRating(4.0);
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        PlaceResponse created = objectMapper.readValue(createResult.getResponse().getContentAsString(), PlaceResponse.class);
+        awaitStreamContaining(stream, "event:created\ndata:{\"type\":\"created\",\"id\":\"" + created.getId() + "\"");
+
+        request.setRating(5.0);
+        mockMvc.perform(put("/api/places/" + created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        awaitStreamContaining(stream, "event:updated\ndata:{\"type\":\"updated\",\"id\":\"" + created.getId() + "\"");
+
+        mockMvc.perform(delete("/api/places/" + created.getId()))
+                .andExpect(status().isNoContent());
+        awaitStreamContaining(stream, "event:deleted\ndata:{\"type\":\"deleted\",\"id\":\"" + created.getId() + "\"");
+
+        // One statement creating more places than are announced one by one
+        List<PlaceRequest> bulk = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            PlaceRequest item = new PlaceRequest();
+            item.setName("Bulk Place " + i);
+            item.setAddress("Bulk St");
+            bulk.add(item);
+        }
+        mockMvc.perform(post("/api/places/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulk)))
+                .andExpect(status().isCreated());
+        awaitStreamContaining(stream, "event:resync");
+        assertThat(stream.getResponse().getContentAsString().split("event:created", -1)).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectNonImageUpload() throws Exception {
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Picky Place");
+        request.setAddress("Filter St");
+        request.setRating(4.0);
+
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        PlaceResponse createdPlace = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            PlaceResponse.class
+        );
+
+        mockMvc.perform(multipart("/api/places/" + createdPlace.getId() + "/photos")
+                .file(new MockMultipartFile("file", "notes.txt", MediaType.TEXT_PLAIN_VALUE, "hello".getBytes())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectPhotoForNonExistentPlace() throws Exception {
+        mockMvc.perform(multipart("/api/places/" + UUID.randomUUID() + "/photos")
+                .file(new MockMultipartFile("file", "photo.jpg", MediaType.IMAGE_JPEG_VALUE, "jpeg".getBytes())))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldReturnNotFoundForNonExistentPlace() throws Exception {
         mockMvc.perform(get("/api/places/" + UUID.randomUUID()))
@@ -252,5 +1319,17 @@ class PlaceControllerIntegrationTest {
     void cleanupAfter() {
         jdbcTemplate.execute("DELETE FROM place_photos");
         jdbcTemplate.execute("DELETE FROM places");
+        jdbcTemplate.execute("DELETE FROM place_tombstones");
+    }
+
+    /**
+     * Events are delivered asynchronously, after the change has committed.
+     */
+    private static void awaitStreamContaining(MvcResult stream, String text) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!stream.getResponse().getContentAsString().contains(text) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(stream.getResponse().getContentAsString()).contains(text);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.repository.JdbcPlaceRepository;
+import com.remotelymap.api.service.PlaceCountService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlaceCountServiceTest {
+
+    @Test
+    void shouldRecountInTheBackgroundOnceAndKeepWritesMadeMeanwhile() throws Exception {
+        JdbcPlaceRepository repository = mock(JdbcPlaceRepository.class);
+        CountDownLatch recountStarted = new CountDownLatch(1);
+        CountDownLatch finishRecount = new CountDownLatch(1);
+        when(repository.count()).thenReturn(10L).thenAnswer(invocation -> {
+            recountStarted.countDown();
+            finishRecount.await();
+            return 20L;
+        });
+        PlacesProperties properties = new PlacesProperties();
+        properties.getCount().setRefreshInterval(Duration.ZERO);
+        PlaceCountService service = new PlaceCountService(repository, properties);
+
+        assertThat(service.count(TotalKind.CACHED).value()).isEqualTo(10);
+        // Expired from here on: the first read starts a recount, the others don't wait for it or start their own
+        assertThat(service.count(TotalKind.CACHED).value()).isEqualTo(10);
+        assertThat(recountStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.count(TotalKind.CACHED).value()).isEqualTo(10);
+        service.recordCreated(3);
+        assertThat(service.count(TotalKind.CACHED).value()).isEqualTo(13);
+        verify(repository, times(2)).count();
+
+        finishRecount.countDown();
+        // Stops at the first read after the recount lands: that read starts another, and the mock never saw the 3
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        long count = service.count(TotalKind.CACHED).value();
+        while (count == 13 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            count = service.count(TotalKind.CACHED).value();
+        }
+        assertThat(count).isEqualTo(23);
+    }
+}
@@ -0,0 +1,35 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.repository.PlaceCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlaceCursorTest {
+
+    @Test
+    void shouldRoundTripThroughEncodedForm() {
+        PlaceCursor cursor = new PlaceCursor(
+            OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.ofHours(2)),
+            UUID.randomUUID()
+        );
+
+        PlaceCursor decoded = PlaceCursor.decode(cursor.encode());
+
+        assertThat(decoded.id()).isEqualTo(cursor.id());
+        assertThat(decoded.createdAt().toInstant()).isEqualTo(cursor.createdAt().toInstant());
+    }
+
+    @Test
+    void shouldRejectGarbage() {
+        assertThatThrownBy(() -> PlaceCursor.decode("not-a-cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PlaceCursor.decode("%%%"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
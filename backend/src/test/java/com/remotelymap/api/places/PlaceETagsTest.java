@@ -0,0 +1,80 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.controller.PlaceETags;
+import com.remotelymap.api.controller.PlaceFormat;
+import com.remotelymap.api.dto.TotalKind;
+import com.remotelymap.api.model.Place;
+import com.remotelymap.api.service.PlaceCount;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceETagsTest {
+
+    @Test
+    void shouldFindTheVersionOfThePlaceInIfMatch() {
+        UUID id = UUID.randomUUID();
+        OffsetDateTime updatedAt = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+
+        String ifMatch = "\"something-else\", " + PlaceETags.of(id, updatedAt, PlaceFormat.JSON);
+
+        assertThat(PlaceETags.versionIn(ifMatch, id)).contains(updatedAt);
+    }
+
+    @Test
+    void shouldTagEachFormatOfAVersionApartAndAcceptThemAll() {
+        UUID id = UUID.randomUUID();
+        OffsetDateTime updatedAt = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+
+        String json = PlaceETags.of(id, updatedAt, PlaceFormat.JSON);
+        String cbor = PlaceETags.of(id, updatedAt, PlaceFormat.CBOR);
+        String smile = PlaceETags.of(id, updatedAt, PlaceFormat.SMILE);
+
+        assertThat(cbor).endsWith("-cbor\"").isNotEqualTo(json);
+        assertThat(smile).endsWith("-smile\"").isNotEqualTo(json);
+        assertThat(PlaceETags.versionIn(cbor, id)).contains(updatedAt);
+        assertThat(PlaceETags.versionIn(smile, id)).contains(updatedAt);
+        assertThat(PlaceETags.versionIn(json.substring(0, json.length() - 1) + "-xml\"", id)).isEmpty();
+    }
+
+    @Test
+    void shouldNegotiateTheFormatLikeSpring() {
+        assertThat(PlaceFormat.negotiate(null)).contains(PlaceFormat.JSON);
+        assertThat(PlaceFormat.negotiate("*/*")).contains(PlaceFormat.JSON);
+        assertThat(PlaceFormat.negotiate("application/cbor")).contains(PlaceFormat.CBOR);
+        assertThat(PlaceFormat.negotiate("application/x-jackson-smile, application/json;q=0.5")).contains(PlaceFormat.SMILE);
+        assertThat(PlaceFormat.negotiate("application/cbor;q=0.5, application/json")).contains(PlaceFormat.JSON);
+        assertThat(PlaceFormat.negotiate("application/*, application/cbor")).contains(PlaceFormat.CBOR);
+        assertThat(PlaceFormat.negotiate("text/html")).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreWeakTagsAndTagsOfOtherPlaces() {
+        UUID id = UUID.randomUUID();
+        OffsetDateTime updatedAt = OffsetDateTime.now(ZoneOffset.UTC);
+
+        assertThat(PlaceETags.versionIn("W/" + PlaceETags.of(id, updatedAt, PlaceFormat.JSON), id)).isEmpty();
+        assertThat(PlaceETags.versionIn(PlaceETags.of(UUID.randomUUID(), updatedAt, PlaceFormat.JSON), id)).isEmpty();
+        assertThat(PlaceETags.versionIn("\"" + id + "-not base 36\"", id)).isEmpty();
+    }
+
+    @Test
+    void shouldTagAPageByItsPlacesAndTotal() {
+        Place place = new Place();
+        place.setId(UUID.randomUUID());
+        place.setUpdatedAt(OffsetDateTime.now(ZoneOffset.UTC));
+        PlaceCount total = new PlaceCount(1, TotalKind.EXACT);
+
+        String eTag = PlaceETags.ofPage(List.of(place), total);
+
+        assertThat(PlaceETags.ofPage(List.of(place), total)).isEqualTo(eTag);
+        assertThat(PlaceETags.ofPage(List.of(place), new PlaceCount(2, TotalKind.EXACT))).isNotEqualTo(eTag);
+        place.setUpdatedAt(place.getUpdatedAt().plusNanos(1_000));
+        assertThat(PlaceETags.ofPage(List.of(place), total)).isNotEqualTo(eTag);
+    }
+}
@@ -0,0 +1,34 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.repository.PlaceProjection;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PlaceProjectionTest {
+
+    @Test
+    void shouldAlwaysIncludeTheId() {
+        PlaceProjection projection = PlaceProjection.parse("name, rating");
+
+        assertThat(projection.fieldNames()).containsExactlyInAnyOrder("id", "name", "rating");
+        assertThat(projection.includes(PlaceProjection.Field.PHOTOS)).isFalse();
+        assertThat(projection.isAll()).isFalse();
+    }
+
+    @Test
+    void shouldKnowWhenEveryFieldIsAskedFor() {
+        PlaceProjection projection = PlaceProjection.parse(
+                "name,description,address,rating,latitude,longitude,photos,createdAt,updatedAt");
+
+        assertThat(projection).isEqualTo(PlaceProjection.ALL);
+        assertThat(projection.isAll()).isTrue();
+    }
+
+    @Test
+    void shouldRejectFieldsPlacesDoNotHave() {
+        assertThatIllegalArgumentException().isThrownBy(() -> PlaceProjection.parse("name,search_vector"));
+        assertThatIllegalArgumentException().isThrownBy(() -> PlaceProjection.parse(" , "));
+    }
+}
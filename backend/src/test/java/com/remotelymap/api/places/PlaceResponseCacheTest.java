@@ -0,0 +1,102 @@
+package com.remotelymap.api.places;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remotelymap.api.config.CacheConfig;
+import com.remotelymap.api.config.PlacesProperties;
+import com.remotelymap.api.controller.PlaceResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceResponseCacheTest {
+    private final PlaceResponseCache cache = newCache();
+
+    @Test
+    void shouldOnlyServeRequestsThatGetJson() {
+        assertThat(cache.serves(requestAccepting(null))).isTrue();
+        assertThat(cache.serves(requestAccepting("*/*"))).isTrue();
+        assertThat(cache.serves(requestAccepting("application/json, text/plain, */*"))).isTrue();
+        assertThat(cache.serves(requestAccepting("application/cbor"))).isFalse();
+        assertThat(cache.serves(requestAccepting("application/x-jackson-smile, application/json;q=0.5"))).isFalse();
+        assertThat(cache.serves(requestAccepting("text/html"))).isFalse();
+        assertThat(cache.serves(requestAccepting("application/json;q=0"))).isFalse();
+    }
+
+    @Test
+    void shouldSerializeAgainOnlyWhenTheETagMoves() throws IOException {
+        AtomicInteger serialized = new AtomicInteger();
+
+        String first = write("\"v1\"", Map.of("name", "First"), serialized, null).getContentAsString();
+        String again = write("\"v1\"", Map.of("name", "Changed"), serialized, null).getContentAsString();
+        String moved = write("\"v2\"", Map.of("name", "Changed"), serialized, null).getContentAsString();
+
+        assertThat(again).isEqualTo(first).contains("First");
+        assertThat(moved).contains("Changed");
+        assertThat(serialized).hasValue(2);
+    }
+
+    @Test
+    void shouldGzipLargePagesAheadOfTime() throws IOException {
+        Map<String, String> page = Map.of("content", "x".repeat(4096));
+
+        MockHttpServletResponse plain = write("W/\"page\"", page, new AtomicInteger(), null);
+        MockHttpServletResponse gzipped = write("W/\"page\"", page, new AtomicInteger(), "br;q=1.0, gzip;q=0.8");
+        MockHttpServletResponse refused = write("W/\"page\"", page, new AtomicInteger(), "gzip;q=0");
+        MockHttpServletResponse strong = write("\"place\"", page, new AtomicInteger(), "gzip");
+
+        assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plain.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertThat(new String(gunzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain.getContentAsString());
+        }
+        assertThat(refused.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        // Strong tags name one encoding, so those bodies are never gzipped
+        assertThat(strong.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    private MockHttpServletResponse write(String eTag, Object body, AtomicInteger serialized, String acceptEncoding)
+            throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/places");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        cache.write(PlaceResponseCache.pageKey(0, 10), headers, () -> {
+            serialized.incrementAndGet();
+            return body;
+        }, new ServletWebRequest(request, response));
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+        return response;
+    }
+
+    private static ServletWebRequest requestAccepting(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/places");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static PlaceResponseCache newCache() {
+        ServerProperties server = new ServerProperties();
+        server.getCompression().setEnabled(true);
+        return new PlaceResponseCache(new ConcurrentMapCacheManager(CacheConfig.PLACE_RESPONSES_CACHE),
+                new ObjectMapper(), new PlacesProperties(), server);
+    }
+}
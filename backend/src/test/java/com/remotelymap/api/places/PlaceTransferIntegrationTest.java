@@ -0,0 +1,158 @@
+package com.remotelymap.api.places;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remotelymap.api.dto.ImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class PlaceTransferIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+        .withDatabaseName("test_db")
+        .withUsername("test")
+        .withPassword("test");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.flyway.locations", () -> "classpath:db/migration/prod");
+        registry.add("spring.flyway.baseline-on-migrate", () -> true);
+    }
+
+    @Test
+    void shouldImportNdjsonAndReportRejectedRecords() throws Exception {
+        String body = """
+            {"name": "Imported Park", "address": "1 Import Way", "rating": 4.5, "latitude": 40.7, "longitude": -74.0}
+            {"name": "Quote \\"Cafe\\", the", "description": "Line one\\nline two", "address": "2 Import Way"}
+            {"name": "", "address": "3 Import Way"}
+            {"name": "Bad Rating", "address": "4 Import Way", "rating": "excellent"}
+            """;
+
+        ImportResult result = importBody(body, MediaType.APPLICATION_NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getRejections()).extracting(ImportResult.RejectedRow::getRow).containsExactly(3L, 4L);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT description FROM places WHERE address = '2 Import Way'", String.class))
+            .isEqualTo("Line one\nline two");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT name FROM places WHERE address = '2 Import Way'", String.class))
+            .isEqualTo("Quote \"Cafe\", the");
+    }
+
+    @Test
+    void shouldImportCsvWithHeader() throws Exception {
+        String body = """
+            name,address,rating,description
+            Csv Place,"10 Comma, Street",3.5,
+            Another Place,11 Csv Street,,"Has ""quotes""\"
+            """;
+
+        ImportResult result = importBody(body, new MediaType("text", "csv"));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM places WHERE description IS NULL AND rating = 3.5", Long.class))
+            .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRollBackWhenBodyIsNotParseable() throws Exception {
+        String body = """
+            {"name": "Fine", "address": "1 Fine St"}
+            {"name": "Broken
+            """;
+
+        mockMvc.perform(post("/api/places/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isBadRequest());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM places", Long.class)).isZero();
+    }
+
+    @Test
+    void shouldExportWhatWasImported() throws Exception {
+        importBody("""
+            {"name": "Export One", "address": "1 Export Rd", "rating": 4.0}
+            {"name": "Export, Two", "address": "2 Export Rd", "description": "Has \\"quotes\\""}
+            """, MediaType.APPLICATION_NDJSON);
+
+        String ndjson = export("ndjson");
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines).allSatisfy(line -> assertThat(objectMapper.readTree(line).get("id").isTextual()).isTrue());
+
+        String csv = export("csv");
+        jdbcTemplate.execute("DELETE FROM places");
+
+        ImportResult reimported = importBody(csv, new MediaType("text", "csv"));
+        assertThat(reimported.getImported()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT description FROM places WHERE name = 'Export, Two'", String.class))
+            .isEqualTo("Has \"quotes\"");
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/places/export").param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult finished = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        return finished.getResponse().getContentAsString();
+    }
+
+    private ImportResult importBody(String body, MediaType contentType) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/places/import")
+                .contentType(contentType)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), ImportResult.class);
+    }
+
+    @AfterEach
+    void cleanupAfter() {
+        jdbcTemplate.execute("DELETE FROM place_photos");
+        jdbcTemplate.execute("DELETE FROM places");
+    }
+}
@@ -0,0 +1,141 @@
+package com.remotelymap.api.places;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remotelymap.api.dto.PlaceRequest;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two independent databases standing in for a primary and its replica. Nothing
+ * replicates between them, so which rows come back shows where a read was routed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ReplicaRoutingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15-alpine")
+        .withDatabaseName("test_db")
+        .withUsername("test")
+        .withPassword("test");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15-alpine")
+        .withDatabaseName("test_db")
+        .withUsername("test")
+        .withPassword("test");
+
+    private static JdbcTemplate replicaJdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> true);
+        // Schema only: seed rows on both sides would hide where a read went
+        registry.add("spring.flyway.locations", () -> "classpath:db/migration/prod");
+        registry.add("spring.flyway.baseline-on-migrate", () -> true);
+        registry.add("places.db.replicas[0].url", replica::getJdbcUrl);
+        registry.add("places.db.replica-lag-check-interval", () -> "200ms");
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+            .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+            .locations("classpath:db/migration/prod")
+            .load()
+            .migrate();
+        replicaJdbcTemplate = new JdbcTemplate(DataSourceBuilder.create()
+            .url(replica.getJdbcUrl())
+            .username(replica.getUsername())
+            .password(replica.getPassword())
+            .build());
+    }
+
+    @Test
+    void shouldServeReadsFromTheReplicaUntilTheClientWrites() throws Exception {
+        replicaJdbcTemplate.update("INSERT INTO places (name, address, rating) VALUES ('Replica Place', 'Replica St', 4.0)");
+        assertThat(namesOnFirstPage(get("/api/places"))).containsExactly("Replica Place");
+
+        PlaceRequest request = new PlaceRequest();
+        request.setName("Primary Place");
+        request.setAddress("Primary St");
+        request.setRating(4.5);
+        MvcResult createResult = mockMvc.perform(post("/api/places")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie readPrimary = createResult.getResponse().getCookie("places-read-primary-until");
+        assertThat(readPrimary).isNotNull();
+        String id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+        // The writer reads its own write, everyone else keeps reading the replica
+        assertThat(namesOnFirstPage(get("/api/places").cookie(readPrimary))).containsExactly("Primary Place");
+        assertThat(namesOnFirstPage(get("/api/places"))).containsExactly("Replica Place");
+
+        // Single places are cached, so they are always loaded from the primary
+        mockMvc.perform(get("/api/places/" + id)).andExpect(status().isOk());
+    }
+
+    private List<String> namesOnFirstPage(MockHttpServletRequestBuilder request) throws Exception {
+        // A replica only gets reads once its lag has been measured
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<String> names = new ArrayList<>();
+        while (true) {
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            JsonNode content = objectMapper.readTree(result.getResponse().getContentAsString()).get("content");
+            names.clear();
+            content.forEach(place -> names.add(place.get("name").asText()));
+            if (!names.isEmpty() || System.currentTimeMillis() > deadline) {
+                return names;
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    @AfterEach
+    void cleanupAfter() {
+        jdbcTemplate.execute("DELETE FROM places");
+        replicaJdbcTemplate.execute("DELETE FROM places");
+    }
+}
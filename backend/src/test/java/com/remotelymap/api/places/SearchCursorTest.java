@@ -0,0 +1,29 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.repository.SearchCursor;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCursorTest {
+
+    @Test
+    void shouldRoundTripRankExactly() {
+        SearchCursor cursor = new SearchCursor(0.1 + 0.2, UUID.randomUUID());
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void shouldRejectGarbage() {
+        assertThatThrownBy(() -> SearchCursor.decode("not-a-cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("TmFOOjEyMw"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
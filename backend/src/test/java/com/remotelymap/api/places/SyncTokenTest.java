@@ -0,0 +1,36 @@
+package com.remotelymap.api.places;
+
+import com.remotelymap.api.repository.PlaceDelta;
+import com.remotelymap.api.repository.SyncToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class SyncTokenTest {
+
+    @Test
+    void shouldSurviveEncoding() {
+        SyncToken token = SyncToken.initial().continuingAfter(new PlaceDelta(1234, UUID.randomUUID(), null), 1200);
+
+        assertThat(SyncToken.decode(token.encode())).isEqualTo(token);
+    }
+
+    @Test
+    void shouldStartTheNextSyncAtTheHorizon() {
+        SyncToken next = SyncToken.startingAt(1200);
+
+        // Everything from the horizon on, including the transaction at it
+        assertThat(next.afterXid()).isEqualTo(1199);
+        assertThat(next.afterId()).isEqualTo(UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+        assertThat(next.horizon()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void shouldRejectTokensItDidNotIssue() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SyncToken.decode("not a token"));
+        assertThatIllegalArgumentException().isThrownBy(() -> SyncToken.decode("MTIzNA"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.remotelymap.api.storage;
+
+import com.remotelymap.api.config.PlacesProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalPhotoStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void shouldStoreLoadAndDeletePhotos() throws Exception {
+        PlacesProperties properties = new PlacesProperties();
+        properties.getPhotos().setRoot(root);
+        LocalPhotoStore store = new LocalPhotoStore(properties);
+
+        // Larger than one transfer chunk, so the copy loop has to go round more than once
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        UUID placeId = UUID.randomUUID();
+        UUID photoId = UUID.randomUUID();
+
+        StoredPhoto stored = store.store(placeId, photoId, new ByteArrayInputStream(content));
+
+        assertThat(stored.sizeBytes()).isEqualTo(content.length);
+        assertThat(stored.checksum())
+            .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+        Resource resource = store.load(placeId, photoId).orElseThrow();
+        assertThat(Files.readAllBytes(resource.getFile().toPath())).isEqualTo(content);
+        assertThat(Files.list(root.resolve(placeId.toString()))).hasSize(1);
+
+        store.deleteAll(placeId);
+
+        assertThat(store.load(placeId, photoId)).isEmpty();
+    }
+}
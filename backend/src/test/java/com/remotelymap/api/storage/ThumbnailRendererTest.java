@@ -0,0 +1,55 @@
+package com.remotelymap.api.storage;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThumbnailRendererTest {
+
+    @Test
+    void shouldScaleOpaqueImageToJpegKeepingAspectRatio() throws Exception {
+        BufferedImage source = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+
+        ThumbnailRenderer.Thumbnail thumbnail = ThumbnailRenderer.render(source, 200);
+
+        assertThat(thumbnail.contentType()).isEqualTo("image/jpeg");
+        assertThat(thumbnail.width()).isEqualTo(200);
+        assertThat(thumbnail.height()).isEqualTo(113);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.content()));
+        assertThat(decoded.getWidth()).isEqualTo(200);
+        assertThat(decoded.getHeight()).isEqualTo(113);
+    }
+
+    @Test
+    void shouldKeepTransparencyAndNotUpscale() throws Exception {
+        BufferedImage source = new BufferedImage(120, 80, BufferedImage.TYPE_INT_ARGB);
+
+        ThumbnailRenderer.Thumbnail thumbnail = ThumbnailRenderer.render(source, 800);
+
+        assertThat(thumbnail.contentType()).isEqualTo("image/png");
+        assertThat(thumbnail.width()).isEqualTo(120);
+        assertThat(thumbnail.height()).isEqualTo(80);
+    }
+
+    @Test
+    void shouldReturnNullForUnreadableContent() throws Exception {
+        assertThat(ThumbnailRenderer.read(new ByteArrayInputStream("not an image".getBytes()), 1_000_000)).isNull();
+    }
+
+    @Test
+    void shouldRefuseToDecodeImagesOverThePixelLimit() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        assertThat(ThumbnailRenderer.read(new ByteArrayInputStream(png.toByteArray()), 120_000).getWidth()).isEqualTo(400);
+        assertThatThrownBy(() -> ThumbnailRenderer.read(new ByteArrayInputStream(png.toByteArray()), 119_999))
+            .isInstanceOf(ThumbnailRenderer.ImageTooLargeException.class)
+            .hasMessageContaining("400x300");
+    }
+}
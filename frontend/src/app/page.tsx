@@ -1,10 +1,13 @@
 'use client';
 
+import { useEffect, useRef } from 'react';
 import SearchBar from '@/components/SearchBar';
 import PlaceCard from '@/components/PlaceCard';
 import { useApi } from '@/lib/api/useApi';
 import { placesApi } from '@/lib/api/placesApi';
-import { PaginatedResponse, Place } from '@/lib/api/types';
+import { CursorPage, Place } from '@/lib/api/types';
+
+const REFRESH_DELAY_MS = 500;
 
 export default function Home() {
   const {
@@ -12,14 +15,46 @@ export default function Home() {
     loading,
     error,
     execute: searchPlaces,
-  } = useApi<PaginatedResponse<Place>, []>(() => placesApi.getAllPlaces());
+  } = useApi<CursorPage<Place>, [string]>((query: string) => placesApi.searchPlaces(query));
+
+  const lastQuery = useRef<string | null>(null);
+  const search = useRef(searchPlaces);
+  search.current = searchPlaces;
+  const shownIds = useRef<Set<string>>(new Set());
+  shownIds.current = new Set((placesData?.content ?? []).flatMap((place) => (place.id ? [place.id] : [])));
 
   const handleSearch = (location: string) => {
-    // TODO: Update this when backend supports location-based search
-    console.log('Searching for places in:', location);
-    searchPlaces();
+    lastQuery.current = location;
+    searchPlaces(location);
   };
 
+  // Results are refreshed when the server says something shown changed, instead of being polled.
+  // Places created elsewhere show up with the next search. Refreshes asked for while one is pending
+  // are folded into it, so a bulk write that touches many shown places costs one search.
+  useEffect(() => {
+    let pending: ReturnType<typeof setTimeout> | undefined;
+    const refresh = () => {
+      if (pending !== undefined) {
+        return;
+      }
+      pending = setTimeout(() => {
+        pending = undefined;
+        if (lastQuery.current !== null) {
+          search.current(lastQuery.current).catch(() => {});
+        }
+      }, REFRESH_DELAY_MS);
+    };
+    const unsubscribe = placesApi.subscribeToChanges((change) => {
+      if (shownIds.current.has(change.id)) {
+        refresh();
+      }
+    }, refresh);
+    return () => {
+      clearTimeout(pending);
+      unsubscribe();
+    };
+  }, []);
+
   return (
     <main className="min-h-screen p-8">
       <div className="max-w-7xl mx-auto">
@@ -43,7 +78,7 @@ export default function Home() {
         {placesData && (
           <div className="mt-8">
             <h2 className="text-2xl font-semibold mb-4">
-              {placesData.totalElements} places found
+              {placesData.content?.length ?? 0}{placesData.hasNext ? '+' : ''} places found
             </h2>
             <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-6">
               {placesData.content?.map((place) => (
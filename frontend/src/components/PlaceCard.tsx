@@ -11,7 +11,8 @@ export default function PlaceCard({ place }: PlaceCardProps) {
     return null;
   }
 
-  const imageUrl = place.photos?.[0] || '/placeholder-image.jpg';
+  const photo = place.photos?.[0];
+  const imageUrl = photo?.thumbnails?.w800 || photo?.url || '/placeholder-image.jpg';
   const rating = place.rating?.toFixed(1) || 'N/A';
 
   return (
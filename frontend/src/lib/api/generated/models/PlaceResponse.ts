@@ -13,6 +13,14 @@
  */
 
 import { mapValues } from '../runtime';
+import type { PhotoResponse } from './PhotoResponse';
+import {
+    PhotoResponseFromJSON,
+    PhotoResponseFromJSONTyped,
+    PhotoResponseToJSON,
+    PhotoResponseToJSONTyped,
+} from './PhotoResponse';
+
 /**
  * 
  * @export
@@ -51,10 +59,10 @@ export interface PlaceResponse {
     rating?: number;
     /**
      * 
-     * @type {Array<string>}
+     * @type {Array<PhotoResponse>}
      * @memberof PlaceResponse
      */
-    photos?: Array<string>;
+    photos?: Array<PhotoResponse>;
     /**
      * 
      * @type {Date}
@@ -91,7 +99,7 @@ export function PlaceResponseFromJSONTyped(json: any, ignoreDiscriminator: boole
         'description': json['description'] == null ? undefined : json['description'],
         'address': json['address'] == null ? undefined : json['address'],
         'rating': json['rating'] == null ? undefined : json['rating'],
-        'photos': json['photos'] == null ? undefined : json['photos'],
+        'photos': json['photos'] == null ? undefined : ((json['photos'] as Array<any>).map(PhotoResponseFromJSON)),
         'createdAt': json['createdAt'] == null ? undefined : (new Date(json['createdAt'])),
         'updatedAt': json['updatedAt'] == null ? undefined : (new Date(json['updatedAt'])),
     };
@@ -113,7 +121,7 @@ export function PlaceResponseToJSONTyped(value?: PlaceResponse | null, ignoreDis
         'description': value['description'],
         'address': value['address'],
         'rating': value['rating'],
-        'photos': value['photos'],
+        'photos': value['photos'] == null ? undefined : ((value['photos'] as Array<any>).map(PhotoResponseToJSON)),
         'createdAt': value['createdAt'] == null ? undefined : ((value['createdAt']).toISOString()),
         'updatedAt': value['updatedAt'] == null ? undefined : ((value['updatedAt']).toISOString()),
     };
@@ -1,6 +1,7 @@
 /* tslint:disable */
 /* eslint-disable */
 export * from './PaginatedResponse';
+export * from './PhotoResponse';
 export * from './PhotoUploadResponse';
 export * from './PlaceRequest';
 export * from './PlaceResponse';
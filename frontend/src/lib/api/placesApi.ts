@@ -1,5 +1,5 @@
 import { PlacesApi, Configuration } from './generated';
-import { ApiError } from './types';
+import { ApiError, CursorPage, Place, PlaceChange } from './types';
 
 const API_BASE_URL = 'http://localhost:8080/api';
 
@@ -42,6 +42,35 @@ class PlacesApiClient {
     }
   }
 
+  async searchPlaces(q: string, size = 20, after?: string): Promise<CursorPage<Place>> {
+    try {
+      const params = new URLSearchParams({ q, size: String(size) });
+      if (after) {
+        params.set('after', after);
+      }
+      const response = await fetch(`${API_BASE_URL}/places/search?${params}`);
+      if (!response.ok) {
+        throw new Error(`Search failed with status ${response.status}`);
+      }
+      return await response.json();
+    } catch (error) {
+      throw handleError(error);
+    }
+  }
+
+  // Opens the change feed. onReload runs once the stream is open and whenever events were missed
+  // (a resync or a reconnect); that is the time to load what is shown. Returns a function that closes it.
+  subscribeToChanges(onChange: (change: PlaceChange) => void, onReload: () => void): () => void {
+    const source = new EventSource(`${API_BASE_URL}/places/changes`);
+    const handleChange = (event: MessageEvent) => onChange(JSON.parse(event.data));
+    source.addEventListener('ready', onReload);
+    source.addEventListener('resync', onReload);
+    source.addEventListener('created', handleChange);
+    source.addEventListener('updated', handleChange);
+    source.addEventListener('deleted', handleChange);
+    return () => source.close();
+  }
+
   async getPlaceById(id: string) {
     try {
       const response = await api.getPlaceById({ id });
@@ -12,6 +12,22 @@ export interface PaginatedResponse<T> {
   totalPages?: number;
   hasNext?: boolean;
   hasPrevious?: boolean;
+  nextCursor?: string | null;
+}
+
+export interface CursorPage<T> {
+  content?: T[];
+  size?: number;
+  hasNext?: boolean;
+  nextCursor?: string | null;
+}
+
+export type PlaceChangeType = 'created' | 'updated' | 'deleted';
+
+export interface PlaceChange {
+  type: PlaceChangeType;
+  id: string;
+  updatedAt?: string | null;
 }
 
 export type ApiError = {